@@ -4,6 +4,7 @@ import com.kuassivi.example.october.di.module.ActivityModule;
 import com.kuassivi.example.october.di.module.ApplicationModule;
 import com.kuassivi.example.october.di.module.FragmentModule;
 import com.kuassivi.october.October;
+import com.kuassivi.october.OctoberDagger;
 import com.kuassivi.october.annotation.ApplicationComponent;
 
 import android.app.Application;
@@ -17,6 +18,6 @@ public class BaseApplication extends Application {
     public void onCreate() {
         super.onCreate();
 
-        October.initialize(this);
+        October.initialize(this, OctoberDagger.initializer());
     }
 }
@@ -0,0 +1,92 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.october.repository.mapper.OctoberDataMapper;
+import com.kuassivi.october.repository.mapper.ParallelDataMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link OctoberDataMapper#transform(Collection)} with a hand written loop and with the
+ * {@link ParallelDataMapper}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataMapperBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private List<Integer>                    items;
+    private OctoberDataMapper<Integer, Item> loopMapper;
+    private OctoberDataMapper<Integer, Item> parallelMapper;
+
+    @Setup
+    public void setUp() {
+        items = StandIns.items(size);
+        loopMapper = new LoopItemMapper();
+        parallelMapper = new ParallelItemMapper();
+    }
+
+    @Benchmark
+    public Collection<Item> loop() {
+        return loopMapper.transform(items);
+    }
+
+    @Benchmark
+    public Collection<Item> parallel() {
+        return parallelMapper.transform(items);
+    }
+
+    static Item map(Integer id) {
+        return new Item(id, "Item " + id);
+    }
+
+    static class Item {
+
+        final int    id;
+        final String name;
+
+        Item(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    static class LoopItemMapper implements OctoberDataMapper<Integer, Item> {
+
+        @Override
+        public Collection<Item> transform(Collection<Integer> dataCollection) {
+            List<Item> result = new ArrayList<>();
+            for (Integer data : dataCollection) {
+                result.add(transform(data));
+            }
+            return result;
+        }
+
+        @Override
+        public Item transform(Integer data) {
+            return map(data);
+        }
+    }
+
+    static class ParallelItemMapper extends ParallelDataMapper<Integer, Item> {
+
+        @Override
+        public Item transform(Integer data) {
+            return map(data);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.annotation.RepositoryProxyCache;
+import com.kuassivi.october.repository.cache.CacheKey;
+import com.kuassivi.october.repository.cache.MemoryCache;
+import com.kuassivi.october.repository.datasource.DataSourceFactory;
+import com.kuassivi.october.repository.datasource.DataSourceFactoryImpl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DataSourceFactory#createService(RepositoryProxyCache)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataSourceFactoryBenchmark {
+
+    private static final CacheKey KEY = CacheKey.of("getItems");
+
+    private DataSourceFactory<ItemDataSource> factory;
+    private RepositoryProxyCache              validCache;
+    private RepositoryProxyCache              expiredCache;
+
+    @Setup
+    public void setUp() {
+        List<Integer> items = StandIns.items(100);
+        validCache = StandIns.cache(false);
+        expiredCache = StandIns.cache(true);
+        ItemRepository repository = new ItemRepository(
+                new DataSourceFactoryImpl<>(new InMemoryCloudDataSource(items),
+                                            new InMemoryLocalDataSource(items),
+                                            new MemoryCache<CacheKey, Object>(1000)),
+                validCache);
+        factory = repository.getDataSourceFactory();
+    }
+
+    @Benchmark
+    public ItemDataSource createLocalService() {
+        return factory.createService(validCache);
+    }
+
+    @Benchmark
+    public ItemDataSource createCloudService() {
+        return factory.createService(expiredCache);
+    }
+
+    @Benchmark
+    public ItemDataSource createServiceWithKey() {
+        return factory.createService(validCache, KEY);
+    }
+}
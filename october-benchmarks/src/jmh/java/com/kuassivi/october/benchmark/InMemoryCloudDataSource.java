@@ -0,0 +1,26 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.october.repository.datasource.CloudDataSource;
+
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * In-memory stand-in for a Retrofit Cloud DataSource.
+ */
+public class InMemoryCloudDataSource extends CloudDataSource<StandInRetrofitFactory>
+        implements ItemDataSource {
+
+    private final List<Integer> items;
+
+    public InMemoryCloudDataSource(List<Integer> items) {
+        super(new StandInRetrofitFactory());
+        this.items = items;
+    }
+
+    @Override
+    public Observable<List<Integer>> getItems() {
+        return delegate(Observable.just(items).map(this::persistCache));
+    }
+}
@@ -0,0 +1,24 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.october.repository.datasource.LocalDataSource;
+
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * In-memory stand-in for a Realm Local DataSource.
+ */
+public class InMemoryLocalDataSource extends LocalDataSource implements ItemDataSource {
+
+    private final List<Integer> items;
+
+    public InMemoryLocalDataSource(List<Integer> items) {
+        this.items = items;
+    }
+
+    @Override
+    public Observable<List<Integer>> getItems() {
+        return delegate(Observable.just(items));
+    }
+}
@@ -0,0 +1,13 @@
+package com.kuassivi.october.benchmark;
+
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * DataSource contract used by the benchmarks.
+ */
+public interface ItemDataSource {
+
+    Observable<List<Integer>> getItems();
+}
@@ -0,0 +1,33 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.annotation.RepositoryProxyCache;
+import com.kuassivi.october.repository.OctoberRepository;
+import com.kuassivi.october.repository.cache.CacheKey;
+import com.kuassivi.october.repository.datasource.DataSourceFactory;
+
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * Repository used by the benchmarks.
+ */
+public class ItemRepository extends OctoberRepository<ItemDataSource> {
+
+    private static final CacheKey ITEMS_KEY = CacheKey.of("getItems");
+
+    private final RepositoryProxyCache cache;
+
+    public ItemRepository(DataSourceFactory dataSourceFactory, RepositoryProxyCache cache) {
+        super(dataSourceFactory);
+        this.cache = cache;
+    }
+
+    public Observable<List<Integer>> getItems() {
+        return getDataSourceFactory().createService(cache).getItems();
+    }
+
+    public Observable<List<Integer>> getItemsWithKey() {
+        return getDataSourceFactory().createService(cache, ITEMS_KEY).getItems();
+    }
+}
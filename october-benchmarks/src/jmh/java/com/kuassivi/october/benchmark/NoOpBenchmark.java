@@ -0,0 +1,38 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.october.mvp.NoOp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link NoOp#of(Class)}, which is called whenever a detached View is accessed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NoOpBenchmark {
+
+    @Benchmark
+    public SampleView of() {
+        return NoOp.of(SampleView.class);
+    }
+
+    @Benchmark
+    public int invoke() {
+        return NoOp.of(SampleView.class).getCount();
+    }
+
+    public interface SampleView {
+
+        void render(String text);
+
+        int getCount();
+    }
+}
@@ -0,0 +1,78 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.october.repository.OctoberRepository;
+import com.kuassivi.october.repository.cache.CacheKey;
+import com.kuassivi.october.repository.cache.MemoryCache;
+import com.kuassivi.october.repository.datasource.DataSourceFactoryImpl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+
+/**
+ * Measures {@link OctoberRepository#build(Observable)} and a whole Repository call through the
+ * Local and Cloud stand-ins, with and without the in-memory cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RepositoryBenchmark {
+
+    private ItemRepository      localRepository;
+    private ItemRepository      cloudRepository;
+    private ItemRepository      memoryRepository;
+    private Observable<Integer> observable;
+
+    @Setup
+    public void setUp() {
+        List<Integer> items = StandIns.items(100);
+        localRepository = new ItemRepository(
+                new DataSourceFactoryImpl<>(new InMemoryCloudDataSource(items),
+                                            new InMemoryLocalDataSource(items)),
+                StandIns.cache(false));
+        cloudRepository = new ItemRepository(
+                new DataSourceFactoryImpl<>(new InMemoryCloudDataSource(items),
+                                            new InMemoryLocalDataSource(items)),
+                StandIns.cache(true));
+        memoryRepository = new ItemRepository(
+                new DataSourceFactoryImpl<>(new InMemoryCloudDataSource(items),
+                                            new InMemoryLocalDataSource(items),
+                                            new MemoryCache<CacheKey, Object>(1000)),
+                StandIns.cache(false));
+        // Fills the in-memory cache and attaches a DataSource Strategy to the repositories
+        localRepository.getItems().subscribe();
+        cloudRepository.getItems().subscribe();
+        memoryRepository.getItemsWithKey().subscribe();
+        observable = Observable.just(1);
+    }
+
+    @Benchmark
+    public Observable<Integer> build() {
+        return localRepository.build(observable);
+    }
+
+    @Benchmark
+    public void localCall(Blackhole blackhole) {
+        localRepository.getItems().subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void cloudCall(Blackhole blackhole) {
+        cloudRepository.getItems().subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void memoryCall(Blackhole blackhole) {
+        memoryRepository.getItemsWithKey().subscribe(blackhole::consume);
+    }
+}
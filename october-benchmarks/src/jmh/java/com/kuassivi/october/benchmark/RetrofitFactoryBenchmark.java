@@ -0,0 +1,46 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.october.service.adapter.OctoberRetrofitFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.http.GET;
+import rx.Observable;
+
+/**
+ * Measures {@link OctoberRetrofitFactory#create(Class)}, which is called by every Cloud DataSource
+ * call, once the service proxy has been cached.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RetrofitFactoryBenchmark {
+
+    private StandInRetrofitFactory factory;
+
+    @Setup
+    public void setUp() {
+        factory = new StandInRetrofitFactory();
+        factory.create(ItemService.class);
+    }
+
+    @Benchmark
+    public ItemService create() {
+        return factory.create(ItemService.class);
+    }
+
+    public interface ItemService {
+
+        @GET("items")
+        Observable<List<Integer>> getItems();
+    }
+}
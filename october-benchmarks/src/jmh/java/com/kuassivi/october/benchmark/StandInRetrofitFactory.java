@@ -0,0 +1,33 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.october.service.adapter.OctoberRetrofitFactory;
+
+import okhttp3.OkHttpClient;
+import retrofit2.Converter;
+import retrofit2.GsonConverterFactory;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit Factory with a plain client and a local api url, no HTTP call is ever performed.
+ */
+public class StandInRetrofitFactory extends OctoberRetrofitFactory {
+
+    public StandInRetrofitFactory() {
+        setApiUrl("http://localhost/");
+    }
+
+    @Override
+    protected OkHttpClient createClient() {
+        return getDefaultClientBuilder().build();
+    }
+
+    @Override
+    protected Retrofit.Builder createRetrofitBuilder() {
+        return getDefaultRetrofitBuilder();
+    }
+
+    @Override
+    protected Converter.Factory createConverterFactory() {
+        return GsonConverterFactory.create();
+    }
+}
@@ -0,0 +1,55 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.annotation.RepositoryProxyCache;
+import com.kuassivi.october.executor.ObserverThread;
+import com.kuassivi.october.executor.SubscriberThread;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.schedulers.Schedulers;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Factory of the stand-ins shared by the benchmarks.
+ * <p>
+ * Schedulers are immediate, so every benchmark measures the framework overhead on the calling
+ * thread only.
+ */
+final class StandIns {
+
+    private StandIns() {
+        // no instances
+    }
+
+    static SubscriberThread subscriberThread() {
+        return Schedulers::immediate;
+    }
+
+    static ObserverThread observerThread() {
+        return Schedulers::immediate;
+    }
+
+    /**
+     * Returns a cache stand-in. Its constant invocation overhead is part of the measurements.
+     * <p>
+     * It does not record its invocations, so it does not allocate across iterations.
+     */
+    static RepositoryProxyCache cache(boolean isExpired) {
+        RepositoryProxyCache cache = mock(RepositoryProxyCache.class, withSettings().stubOnly());
+        when(cache.isExpired()).thenReturn(isExpired);
+        when(cache.isCached()).thenReturn(!isExpired);
+        return cache;
+    }
+
+    static List<Integer> items(int size) {
+        List<Integer> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,67 @@
+package com.kuassivi.october.benchmark;
+
+import com.kuassivi.october.interactor.UseCase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+
+/**
+ * Measures {@link UseCase#asObservable()} and a subscription to it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UseCaseBenchmark {
+
+    private ItemsUseCase useCase;
+    private ItemsUseCase memoizedUseCase;
+
+    @Setup
+    public void setUp() {
+        List<Integer> items = StandIns.items(100);
+        useCase = new ItemsUseCase(items);
+        memoizedUseCase = new ItemsUseCase(items);
+        memoizedUseCase.memoize(1, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public Observable<List<Integer>> asObservable() {
+        return useCase.asObservable();
+    }
+
+    @Benchmark
+    public void subscribe(Blackhole blackhole) {
+        useCase.asObservable().subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void subscribeMemoized(Blackhole blackhole) {
+        memoizedUseCase.asObservable().subscribe(blackhole::consume);
+    }
+
+    static class ItemsUseCase extends UseCase<List<Integer>> {
+
+        private final List<Integer> items;
+
+        ItemsUseCase(List<Integer> items) {
+            super(StandIns.subscriberThread(), StandIns.observerThread());
+            this.items = items;
+        }
+
+        @Override
+        protected Observable<List<Integer>> provideObservable() {
+            return Observable.just(items);
+        }
+    }
+}
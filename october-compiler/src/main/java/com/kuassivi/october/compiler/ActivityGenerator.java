@@ -11,10 +11,10 @@ import com.kuassivi.october.di.component.BaseActivityComponent;
 import com.kuassivi.october.di.component.internal.BaseHelperActivityComponent;
 import com.kuassivi.october.di.component.internal.BaseHelperFragmentComponent;
 import com.kuassivi.october.di.module.BaseActivityModule;
+import com.kuassivi.october.di.module.BaseApplicationModule;
 import com.kuassivi.october.mvp.contract.Presentable;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
-import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
@@ -23,6 +23,7 @@ import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -30,7 +31,6 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.Filer;
-import javax.inject.Inject;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
@@ -41,13 +41,13 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
-import dagger.Lazy;
 import dagger.Subcomponent;
 
 public class ActivityGenerator {
 
     Map<String, DefaultAnnotatedClass> activityMap;
     Map<String, String>                presenterMap;
+    Map<String, String>                typeArgumentMap;
     private Types                     typeUtils;
     private Elements                  elementUtils;
     private Filer                     filer;
@@ -77,6 +77,7 @@ public class ActivityGenerator {
 
         activityMap = new LinkedHashMap<>();
         presenterMap = new LinkedHashMap<>();
+        typeArgumentMap = new LinkedHashMap<>();
     }
 
     public void process(Set<? extends Element> activityComponentSet,
@@ -130,6 +131,7 @@ public class ActivityGenerator {
                     DefaultAnnotatedClass storedClass = activityMap.get(qualifiedClassName);
                     if (storedClass == null) {
                         activityMap.put(qualifiedClassName, annotatedClass);
+                        putTypeArgument(annotatedClass.getAnnotatedClassElement(), className);
                         Utils.note("Processing class " + annotatedClass.getSimpleName());
                     }
                     break;
@@ -199,6 +201,7 @@ public class ActivityGenerator {
                                 presenterMap.put(
                                         found.getQualifiedName().toString(),
                                         currentPresenter.getQualifiedName().toString());
+                                putTypeArgument(currentPresenter, Config.OCTOBER_PRESENTER_CLASS);
                                 Utils.note("Processing class " + currentPresenter.getSimpleName());
                             }
                             break;
@@ -211,6 +214,22 @@ public class ActivityGenerator {
         }
     }
 
+    /**
+     * Stores the Type Argument that the class passes to the October super class, so it can be
+     * resolved at runtime without reflection.
+     * <p>
+     * The class is stored by its runtime name, so it is never loaded by the generated code. Type
+     * Arguments that the generated code cannot reference are skipped, and resolved by reflection
+     * at runtime.
+     */
+    private void putTypeArgument(TypeElement typeElement, String superClassName) {
+        TypeElement typeArgument = Utils.findTypeArgument(typeElement, superClassName);
+        if (typeArgument != null && Utils.isAccessibleFrom(typeArgument, Config.PACKAGE)) {
+            typeArgumentMap.put(Utils.getBinaryName(typeElement),
+                                typeArgument.getQualifiedName().toString());
+        }
+    }
+
     private void generateCode() throws IOException {
 
         createPresenterActivityInjector();
@@ -223,47 +242,18 @@ public class ActivityGenerator {
     private void createPresenterActivityInjector()
             throws IOException {
 
-        TypeSpec.Builder presenterActivityInjectorClassBuilder =
-                TypeSpec.classBuilder(Config.PRESENTER_ACTIVITY_INJECTOR)
-                        .addModifiers(Modifier.PUBLIC)
-                        .superclass(OctoberPresenterActivityInjectable.class);
-
-        //add Presenter members
-        MethodSpec.Builder provideMethod = MethodSpec.overriding(Utils.findFirstElement(
-                OctoberPresenterActivityInjectable.class, Config.PRESENTER_INJECTOR_METHOD));
-
-        if (!presenterMap.isEmpty()) {
-
-            int round = 1;
-
-            for (Map.Entry<String, String> element : presenterMap.entrySet()) {
-
-                ParameterizedTypeName memberType =
-                        ParameterizedTypeName.get(
-                                ClassName.get(Lazy.class),
-                                ClassName.bestGuess(element.getValue()));
-                String member = "presenterLazy" + round;
-                presenterActivityInjectorClassBuilder
-                        .addField(
-                                FieldSpec.builder(memberType, member)
-                                         .addAnnotation(Inject.class)
-                                         .build());
-                provideMethod.beginControlFlow("if (arg0.equals($T.class))",
-                                               ClassName.bestGuess(element.getKey()))
-                             .addStatement("return $L", member)
-                             .endControlFlow();
-                round++;
-            }
-
-            provideMethod = provideMethod.addStatement("return null");
-        } else {
-            provideMethod = provideMethod.addStatement("return null");
-        }
-
-        presenterActivityInjectorClassBuilder.addMethod(provideMethod.build());
-
-        TypeSpec typeSpec = presenterActivityInjectorClassBuilder.build();
-        JavaFile.builder(pkg_di, typeSpec).build().writeTo(filer);
+        List<String> viewModules = Arrays.asList(
+                applicationAnnotatedClass.getActivityModuleQualifiedClassName(),
+                BaseActivityModule.class.getCanonicalName());
+        List<String> applicationModules = Arrays.asList(
+                applicationAnnotatedClass.getApplicationModuleQualifiedClassName(),
+                BaseApplicationModule.class.getCanonicalName());
+
+        new PresenterInjectorGenerator(elementUtils, filer, pkg_di,
+                                       viewModules, applicationModules)
+                .generate(Config.PRESENTER_ACTIVITY_INJECTOR,
+                          OctoberPresenterActivityInjectable.class,
+                          presenterMap);
     }
 
     private void createActivityComponent() throws IOException {
@@ -367,4 +357,8 @@ public class ActivityGenerator {
     public Map<String, String> getPresenterMap() {
         return presenterMap;
     }
+
+    public Map<String, String> getTypeArgumentMap() {
+        return typeArgumentMap;
+    }
 }
@@ -9,6 +9,7 @@ import com.kuassivi.october.di.module.BaseApplicationModule;
 import com.kuassivi.october.di.module.BaseFragmentModule;
 import com.kuassivi.october.mvp.OctoberActivityInterface;
 import com.kuassivi.october.mvp.OctoberFragmentInterface;
+import com.kuassivi.october.mvp.TypeResolver;
 import com.kuassivi.october.util.StringUtils;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
@@ -19,9 +20,12 @@ import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.annotation.processing.Filer;
 import javax.inject.Singleton;
@@ -134,6 +138,10 @@ public class ApplicationGenerator {
                                   "application").build())
                           .returns(OctoberComponent.class);
 
+        initialize.addStatement("$T.register($L())",
+                                ClassName.get(TypeResolver.class),
+                                Config.TYPE_TABLE_METHOD);
+
         initialize.addStatement("final $T component = $T.builder()\n"
                                 + "$>.$L(new $T(application)).build()$<",
                                 ClassName.get(pkg_di_component,
@@ -148,37 +156,59 @@ public class ApplicationGenerator {
         initialize.addStatement("component.$L(application)", Config.COMPONENT_INJECTOR_METHOD);
 
         CodeBlock.Builder fragmentInjections = CodeBlock.builder();
+        CodeBlock.Builder fragmentClasses = CodeBlock.builder();
         Collection<DefaultAnnotatedClass> fragmentMap = fragmentGenerator.getFragmentMap().values();
         if (!fragmentMap.isEmpty()) {
-            fragmentInjections.indent();
+            fragmentInjections.beginControlFlow("switch ($L.$L.indexOf(o.getClass()))",
+                                                Config.FRAGMENT_INDEX,
+                                                Config.CLASS_INDEX_INSTANCE);
         }
+        int fragmentIndex = 0;
         for (DefaultAnnotatedClass annotatedClass : fragmentMap) {
-            fragmentInjections.beginControlFlow("if(o instanceof $T)",
-                                                ClassName.bestGuess(
-                                                        annotatedClass.getQualifiedName()))
+            fragmentClasses.add(fragmentIndex > 0
+                                ? ",\n$T.class"
+                                : "$T.class",
+                                ClassName.bestGuess(annotatedClass.getQualifiedName()));
+            fragmentInjections.add("case $L:\n$>", fragmentIndex)
                               .addStatement("get$L().$L(($T)o)",
                                             Config.FRAGMENT_COMPONENT_SIMPLE_NAME,
                                             Config.COMPONENT_INJECTOR_METHOD,
                                             ClassName.bestGuess(
                                                     annotatedClass.getQualifiedName()))
-                              .endControlFlow();
+                              .addStatement("break")
+                              .add("$<");
+            fragmentIndex++;
+        }
+        if (!fragmentMap.isEmpty()) {
+            fragmentInjections.endControlFlow();
         }
 
         CodeBlock.Builder activityInjections = CodeBlock.builder();
+        CodeBlock.Builder activityClasses = CodeBlock.builder();
         Collection<DefaultAnnotatedClass> activityMap = activityGenerator.getActivityMap().values();
         if (!activityMap.isEmpty()) {
-            activityInjections.indent();
+            activityInjections.beginControlFlow("switch ($L.$L.indexOf(o.getClass()))",
+                                                Config.ACTIVITY_INDEX,
+                                                Config.CLASS_INDEX_INSTANCE);
         }
+        int activityIndex = 0;
         for (DefaultAnnotatedClass annotatedClass : activityMap) {
-            activityInjections.beginControlFlow("if(o instanceof $T)",
-                                                ClassName.bestGuess(
-                                                        annotatedClass.getQualifiedName()))
+            activityClasses.add(activityIndex > 0
+                                ? ",\n$T.class"
+                                : "$T.class",
+                                ClassName.bestGuess(annotatedClass.getQualifiedName()));
+            activityInjections.add("case $L:\n$>", activityIndex)
                               .addStatement("get$L().$L(($T)o)",
                                             Config.ACTIVITY_COMPONENT_SIMPLE_NAME,
                                             Config.COMPONENT_INJECTOR_METHOD,
                                             ClassName.bestGuess(
                                                     annotatedClass.getQualifiedName()))
-                              .endControlFlow();
+                              .addStatement("break")
+                              .add("$<");
+            activityIndex++;
+        }
+        if (!activityMap.isEmpty()) {
+            activityInjections.endControlFlow();
         }
 
         initialize.addCode("\nreturn new $T() {\n"
@@ -230,7 +260,7 @@ public class ApplicationGenerator {
                            + "$<}\n"
                            + "\n"
                            + "@Override\n"
-                           + "public void $L($T o) {\n",
+                           + "public void $L($T o) {\n$>",
                            ClassName.get(OctoberComponent.class),
                            ClassName.get(pkg_di_component, Config.ACTIVITY_COMPONENT),
                            ClassName.get(pkg_di_component, Config.FRAGMENT_COMPONENT),
@@ -264,7 +294,7 @@ public class ApplicationGenerator {
         );
 
         initialize.addCode(activityInjections.build())
-                  .endControlFlow()
+                  .addCode("$<}\n")
                   .addCode("\n@Override\n")
                   .beginControlFlow("public void $L($T o)",
                                     Config.COMPONENT_INJECTOR_METHOD,
@@ -282,9 +312,69 @@ public class ApplicationGenerator {
                 TypeSpec.classBuilder(Config.OCTOBER_DI_NAME)
                         .addSuperinterface(componentInterfaceType)
                         .addModifiers(Modifier.PUBLIC)
-                        .addMethod(initialize.build());
+                        .addType(Utils.generateClassIndexHolder(Config.ACTIVITY_INDEX,
+                                                                activityClasses.build()))
+                        .addType(Utils.generateClassIndexHolder(Config.FRAGMENT_INDEX,
+                                                                fragmentClasses.build()))
+                        .addMethod(
+                                MethodSpec.methodBuilder(Config.DAGGER_INITIALIZER_METHOD)
+                                          .addJavadoc("Returns the initializer to be passed to "
+                                                      + "October, without any reflection.\n")
+                                          .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                                          .returns(componentInterfaceType)
+                                          .addStatement("return new $L()",
+                                                        Config.OCTOBER_DI_NAME)
+                                          .build())
+                        .addMethod(initialize.build())
+                        .addMethod(generateTypeTable());
 
         TypeSpec typeSpec = classBuilder.build();
         JavaFile.builder(Config.PACKAGE, typeSpec).build().writeTo(filer);
     }
+
+    /**
+     * Generates the table with the type parameter of every Activity, Fragment and Presenter, to
+     * be registered into the {@link TypeResolver}.
+     * <p>
+     * The table switches over the class names, so creating it does not load any class, and only
+     * the requested type parameter is loaded.
+     */
+    private MethodSpec generateTypeTable() {
+
+        Map<String, String> typeArguments = new LinkedHashMap<>();
+        typeArguments.putAll(activityGenerator.getTypeArgumentMap());
+        typeArguments.putAll(fragmentGenerator.getTypeArgumentMap());
+
+        ParameterizedTypeName classType =
+                ParameterizedTypeName.get(ClassName.get(Class.class),
+                                          WildcardTypeName.subtypeOf(Object.class));
+
+        MethodSpec.Builder typeOf =
+                MethodSpec.methodBuilder("typeOf")
+                          .addAnnotation(Override.class)
+                          .addModifiers(Modifier.PUBLIC)
+                          .addParameter(classType, "clazz")
+                          .returns(classType)
+                          .beginControlFlow("switch (clazz.getName())");
+        for (Map.Entry<String, String> entry : typeArguments.entrySet()) {
+            typeOf.addCode("case $S:\n$>", entry.getKey())
+                  .addStatement("return $T.class", ClassName.bestGuess(entry.getValue()))
+                  .addCode("$<");
+        }
+        typeOf.addCode("default:\n$>")
+              .addStatement("return null")
+              .addCode("$<")
+              .endControlFlow();
+
+        TypeSpec table = TypeSpec.anonymousClassBuilder("")
+                                 .addSuperinterface(TypeResolver.TypeTable.class)
+                                 .addMethod(typeOf.build())
+                                 .build();
+
+        return MethodSpec.methodBuilder(Config.TYPE_TABLE_METHOD)
+                         .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                         .returns(TypeResolver.TypeTable.class)
+                         .addStatement("return $L", table)
+                         .build();
+    }
 }
@@ -9,11 +9,12 @@ import com.kuassivi.october.annotation.PerFragment;
 import com.kuassivi.october.di.OctoberPresenterFragmentInjectable;
 import com.kuassivi.october.di.component.BaseFragmentComponent;
 import com.kuassivi.october.di.component.internal.BaseHelperFragmentComponent;
+import com.kuassivi.october.di.module.BaseActivityModule;
+import com.kuassivi.october.di.module.BaseApplicationModule;
 import com.kuassivi.october.di.module.BaseFragmentModule;
 import com.kuassivi.october.mvp.contract.Presentable;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
-import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
@@ -22,6 +23,7 @@ import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -29,7 +31,6 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.processing.Filer;
-import javax.inject.Inject;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
@@ -40,7 +41,6 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
-import dagger.Lazy;
 import dagger.Subcomponent;
 
 public class FragmentGenerator {
@@ -56,6 +56,7 @@ public class FragmentGenerator {
 
     Map<String, DefaultAnnotatedClass> fragmentMap;
     Map<String, String> presenterMap;
+    Map<String, String> typeArgumentMap;
 
     public FragmentGenerator(Types typeUtils,
                              Elements elementUtils,
@@ -78,6 +79,7 @@ public class FragmentGenerator {
 
         fragmentMap = new LinkedHashMap<>();
         presenterMap = new LinkedHashMap<>();
+        typeArgumentMap = new LinkedHashMap<>();
     }
 
     public void process(Set<? extends Element> fragments,
@@ -130,6 +132,8 @@ public class FragmentGenerator {
                     DefaultAnnotatedClass storedClass = fragmentMap.get(qualifiedClassName);
                     if (storedClass == null) {
                         fragmentMap.put(qualifiedClassName, annotatedClass);
+                        putTypeArgument(annotatedClass.getAnnotatedClassElement(),
+                                        Config.OCTOBER_FRAGMENT_CLASS);
                         Utils.note("Processing class " + annotatedClass.getSimpleName());
                     }
                     break;
@@ -200,6 +204,7 @@ public class FragmentGenerator {
                                 presenterMap.put(
                                         found.getQualifiedName().toString(),
                                         currentPresenter.getQualifiedName().toString());
+                                putTypeArgument(currentPresenter, Config.OCTOBER_PRESENTER_CLASS);
                                 Utils.note("Processing class " + currentPresenter.getSimpleName());
                             }
                             break;
@@ -212,6 +217,22 @@ public class FragmentGenerator {
         }
     }
 
+    /**
+     * Stores the Type Argument that the class passes to the October super class, so it can be
+     * resolved at runtime without reflection.
+     * <p>
+     * The class is stored by its runtime name, so it is never loaded by the generated code. Type
+     * Arguments that the generated code cannot reference are skipped, and resolved by reflection
+     * at runtime.
+     */
+    private void putTypeArgument(TypeElement typeElement, String superClassName) {
+        TypeElement typeArgument = Utils.findTypeArgument(typeElement, superClassName);
+        if (typeArgument != null && Utils.isAccessibleFrom(typeArgument, Config.PACKAGE)) {
+            typeArgumentMap.put(Utils.getBinaryName(typeElement),
+                                typeArgument.getQualifiedName().toString());
+        }
+    }
+
     private void generateCode() throws IOException {
 
         createPresenterFragmentInjector();
@@ -224,47 +245,21 @@ public class FragmentGenerator {
     private void createPresenterFragmentInjector()
             throws IOException {
 
-        TypeSpec.Builder presenterFragmentInjectorClassBuilder =
-                TypeSpec.classBuilder(Config.PRESENTER_FRAGMENT_INJECTOR)
-                        .addModifiers(Modifier.PUBLIC)
-                        .superclass(OctoberPresenterFragmentInjectable.class);
-
-        //add Presenter members
-        MethodSpec.Builder provideMethod = MethodSpec.overriding(Utils.findFirstElement(
-                OctoberPresenterFragmentInjectable.class, Config.PRESENTER_INJECTOR_METHOD));
-
-        if (!presenterMap.isEmpty()) {
-
-            int round = 1;
-
-            for (Map.Entry<String, String> element : presenterMap.entrySet()) {
-
-                ParameterizedTypeName memberType =
-                        ParameterizedTypeName.get(
-                                ClassName.get(Lazy.class),
-                                ClassName.bestGuess(element.getValue()));
-                String member = "presenterLazy" + round;
-                presenterFragmentInjectorClassBuilder
-                        .addField(
-                                FieldSpec.builder(memberType, member)
-                                         .addAnnotation(Inject.class)
-                                         .build());
-                provideMethod.beginControlFlow("if (arg0.equals($T.class))",
-                                               ClassName.bestGuess(element.getKey()))
-                             .addStatement("return $L", member)
-                             .endControlFlow();
-                round++;
-            }
-
-            provideMethod = provideMethod.addStatement("return null");
-        } else {
-            provideMethod = provideMethod.addStatement("return null");
-        }
-
-        presenterFragmentInjectorClassBuilder.addMethod(provideMethod.build());
-
-        TypeSpec typeSpec = presenterFragmentInjectorClassBuilder.build();
-        JavaFile.builder(pkg_di, typeSpec).build().writeTo(filer);
+        // the Fragment graph is a child of the Activity one
+        List<String> viewModules = Arrays.asList(
+                applicationAnnotatedClass.getFragmentModuleQualifiedClassName(),
+                BaseFragmentModule.class.getCanonicalName(),
+                applicationAnnotatedClass.getActivityModuleQualifiedClassName(),
+                BaseActivityModule.class.getCanonicalName());
+        List<String> applicationModules = Arrays.asList(
+                applicationAnnotatedClass.getApplicationModuleQualifiedClassName(),
+                BaseApplicationModule.class.getCanonicalName());
+
+        new PresenterInjectorGenerator(elementUtils, filer, pkg_di,
+                                       viewModules, applicationModules)
+                .generate(Config.PRESENTER_FRAGMENT_INJECTOR,
+                          OctoberPresenterFragmentInjectable.class,
+                          presenterMap);
     }
 
     private void createFragmentComponent() throws IOException {
@@ -358,4 +353,8 @@ public class FragmentGenerator {
     public Map<String, String> getPresenterMap() {
         return presenterMap;
     }
+
+    public Map<String, String> getTypeArgumentMap() {
+        return typeArgumentMap;
+    }
 }
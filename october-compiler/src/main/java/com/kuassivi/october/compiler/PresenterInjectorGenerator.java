@@ -0,0 +1,525 @@
+package com.kuassivi.october.compiler;
+
+import com.kuassivi.october.Config;
+import com.kuassivi.october.annotation.PerActivity;
+import com.kuassivi.october.annotation.PerFragment;
+import com.kuassivi.october.di.OctoberPresenterAbstractInjector;
+import com.kuassivi.october.util.StringUtils;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.Filer;
+import javax.inject.Inject;
+import javax.inject.Qualifier;
+import javax.inject.Scope;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+
+import dagger.Lazy;
+import dagger.MembersInjector;
+import dagger.Module;
+import dagger.Provides;
+
+/**
+ * Generates the Presenter injector of the Activities or the Fragments.
+ * <p>
+ * Presenters are partitioned into features, one per package of their Presentable interface. The
+ * Lazy Presenters of every feature are held by a nested class that is only injected the first
+ * time one of its Presenters is provided, so creating the injector does not create the Lazy
+ * Presenters of the whole application.
+ * <p>
+ * Presenters that can be retained across configuration changes also get a MembersInjector, so
+ * their members are injected again from the graph of the View that restores them.
+ */
+public class PresenterInjectorGenerator {
+
+    /**
+     * Classes that belong to the Activity or Fragment graph.
+     */
+    private static final String[] VIEW_CLASSES = {
+            "android.app.Activity",
+            "android.app.Fragment",
+            "android.support.v4.app.Fragment"
+    };
+
+    /**
+     * Classes whose bindings are the ones of their type argument.
+     */
+    private static final String[] WRAPPER_CLASSES = {
+            "javax.inject.Provider",
+            "dagger.Lazy",
+            "dagger.MembersInjector"
+    };
+
+    private static final String CONTEXT_CLASS = "android.content.Context";
+
+    private Elements     elementUtils;
+    private Filer        filer;
+    private String       pkg_di;
+    private List<String> viewModules;
+    private List<String> applicationModules;
+
+    private Map<String, List<ExecutableElement>> viewBindings;
+    private Map<String, List<ExecutableElement>> applicationBindings;
+
+    /**
+     * @param elementUtils       The element utilities
+     * @param filer              The filer the injector is written to
+     * @param pkg_di             The package of the injector
+     * @param viewModules        Qualified names of the modules of the Activity or Fragment graph
+     * @param applicationModules Qualified names of the modules of the Application graph
+     */
+    public PresenterInjectorGenerator(Elements elementUtils, Filer filer, String pkg_di,
+                                      List<String> viewModules,
+                                      List<String> applicationModules) {
+        this.elementUtils = elementUtils;
+        this.filer = filer;
+        this.pkg_di = pkg_di;
+        this.viewModules = viewModules;
+        this.applicationModules = applicationModules;
+    }
+
+    /**
+     * Writes the Presenter injector.
+     *
+     * @param injectorName  Simple name of the injector class
+     * @param injectorClass The October injector class that it inherits from
+     * @param presenterMap  Presenter implementation of every Presentable interface
+     */
+    public void generate(String injectorName,
+                         Class<? extends OctoberPresenterAbstractInjector> injectorClass,
+                         Map<String, String> presenterMap) throws IOException {
+
+        TypeSpec.Builder injectorClassBuilder =
+                TypeSpec.classBuilder(injectorName)
+                        .addModifiers(Modifier.PUBLIC)
+                        .superclass(injectorClass);
+
+        //add Presenter members
+        MethodSpec.Builder provideMethod = MethodSpec.overriding(Utils.findFirstElement(
+                injectorClass, Config.PRESENTER_INJECTOR_METHOD));
+
+        ExecutableElement reinject = Utils.findFirstElement(injectorClass,
+                                                            Config.PRESENTER_REINJECT_METHOD);
+        MethodSpec.Builder retainableMethod = MethodSpec.overriding(Utils.findFirstElement(
+                injectorClass, Config.PRESENTER_RETAINABLE_METHOD));
+        MethodSpec.Builder reinjectMethod = MethodSpec.overriding(reinject);
+
+        if (presenterMap.isEmpty()) {
+            injectorClassBuilder.addMethod(provideMethod.addStatement("return null").build())
+                                .addMethod(retainableMethod.addStatement("return false").build())
+                                .addMethod(reinjectMethod.build());
+            JavaFile.builder(pkg_di, injectorClassBuilder.build()).build().writeTo(filer);
+            return;
+        }
+
+        String presenterParameter = reinject.getParameters().get(1).getSimpleName().toString();
+        CodeBlock.Builder retainableCases = CodeBlock.builder();
+        CodeBlock.Builder reinjectCases = CodeBlock.builder();
+
+        Map<String, List<Map.Entry<String, String>>> features = findFeatures(presenterMap);
+
+        CodeBlock.Builder presenterClasses = CodeBlock.builder();
+
+        provideMethod.beginControlFlow("switch ($L.$L.indexOf(arg0))",
+                                       Config.PRESENTER_INDEX,
+                                       Config.CLASS_INDEX_INSTANCE);
+
+        int round = 1;
+        int featureIndex = 0;
+
+        for (Map.Entry<String, List<Map.Entry<String, String>>> feature : features.entrySet()) {
+
+            String featureName = Config.PRESENTER_FEATURE + featureIndex;
+            String featureGetter = StringUtils.uncapitalize(featureName);
+            String featureInjector = featureGetter + "Injector";
+            ClassName featureClass = ClassName.get(pkg_di, injectorName, featureName);
+
+            TypeSpec.Builder featureClassBuilder =
+                    TypeSpec.classBuilder(featureName)
+                            .addJavadoc("Presenters of the $L feature.\n", feature.getKey())
+                            .addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+
+            for (Map.Entry<String, String> element : feature.getValue()) {
+
+                ParameterizedTypeName memberType =
+                        ParameterizedTypeName.get(
+                                ClassName.get(Lazy.class),
+                                ClassName.bestGuess(element.getValue()));
+                String member = "presenterLazy" + round;
+                featureClassBuilder
+                        .addField(
+                                FieldSpec.builder(memberType, member)
+                                         .addAnnotation(Inject.class)
+                                         .build());
+                presenterClasses.add(round > 1
+                                     ? ",\n$T.class"
+                                     : "$T.class",
+                                     ClassName.bestGuess(element.getKey()));
+                provideMethod.addCode("case $L:\n$>", round - 1)
+                             .addStatement("return $L().$L", featureGetter, member)
+                             .addCode("$<");
+
+                if (isRetainable(element.getValue())) {
+                    ParameterizedTypeName injectorType =
+                            ParameterizedTypeName.get(
+                                    ClassName.get(MembersInjector.class),
+                                    ClassName.bestGuess(element.getValue()));
+                    String injector = "presenterInjector" + round;
+                    featureClassBuilder
+                            .addField(
+                                    FieldSpec.builder(injectorType, injector)
+                                             .addAnnotation(Inject.class)
+                                             .build());
+                    retainableCases.add("case $L:\n", round - 1);
+                    reinjectCases.add("case $L:\n$>", round - 1)
+                                 .addStatement("$L().$L.injectMembers(($T) $L)",
+                                               featureGetter, injector,
+                                               ClassName.bestGuess(element.getValue()),
+                                               presenterParameter)
+                                 .addStatement("break")
+                                 .add("$<");
+                }
+                round++;
+            }
+
+            injectorClassBuilder
+                    .addType(featureClassBuilder.build())
+                    .addField(
+                            FieldSpec.builder(ParameterizedTypeName.get(
+                                    ClassName.get(MembersInjector.class), featureClass),
+                                              featureInjector)
+                                     .addAnnotation(Inject.class)
+                                     .build())
+                    .addField(featureClass, featureGetter, Modifier.PRIVATE)
+                    .addMethod(
+                            MethodSpec.methodBuilder(featureGetter)
+                                      .addModifiers(Modifier.PRIVATE)
+                                      .returns(featureClass)
+                                      .beginControlFlow("if ($L == null)", featureGetter)
+                                      .addStatement("$L = new $T()", featureGetter, featureClass)
+                                      .addStatement("$L.injectMembers($L)",
+                                                    featureInjector, featureGetter)
+                                      .endControlFlow()
+                                      .addStatement("return $L", featureGetter)
+                                      .build());
+            featureIndex++;
+        }
+
+        provideMethod.addCode("default:\n$>")
+                     .addStatement("return null")
+                     .addCode("$<")
+                     .endControlFlow();
+
+        CodeBlock retainable = retainableCases.build();
+        if (retainable.isEmpty()) {
+            retainableMethod.addStatement("return false");
+        } else {
+            retainableMethod.beginControlFlow("switch ($L.$L.indexOf($L))",
+                                              Config.PRESENTER_INDEX,
+                                              Config.CLASS_INDEX_INSTANCE,
+                                              reinject.getParameters().get(0).getSimpleName())
+                            .addCode(retainable)
+                            .addCode("$>")
+                            .addStatement("return true")
+                            .addCode("$<default:\n$>")
+                            .addStatement("return false")
+                            .addCode("$<")
+                            .endControlFlow();
+            reinjectMethod.beginControlFlow("switch ($L.$L.indexOf($L))",
+                                            Config.PRESENTER_INDEX,
+                                            Config.CLASS_INDEX_INSTANCE,
+                                            reinject.getParameters().get(0).getSimpleName())
+                          .addCode(reinjectCases.build())
+                          .endControlFlow();
+        }
+
+        injectorClassBuilder
+                .addType(Utils.generateClassIndexHolder(Config.PRESENTER_INDEX,
+                                                        presenterClasses.build()))
+                .addMethod(provideMethod.build())
+                .addMethod(retainableMethod.build())
+                .addMethod(reinjectMethod.build());
+
+        JavaFile.builder(pkg_di, injectorClassBuilder.build()).build().writeTo(filer);
+    }
+
+    /**
+     * Groups the Presenters by the package of their Presentable interface.
+     */
+    private Map<String, List<Map.Entry<String, String>>> findFeatures(
+            Map<String, String> presenterMap) {
+        Map<String, List<Map.Entry<String, String>>> features = new LinkedHashMap<>();
+        for (Map.Entry<String, String> element : presenterMap.entrySet()) {
+            TypeElement presentable = elementUtils.getTypeElement(element.getKey());
+            String feature = elementUtils.getPackageOf(presentable).getQualifiedName().toString();
+            List<Map.Entry<String, String>> presenters = features.get(feature);
+            if (presenters == null) {
+                presenters = new ArrayList<>();
+                features.put(feature, presenters);
+            }
+            presenters.add(element);
+        }
+        return features;
+    }
+
+    /**
+     * Checks whether a Presenter can be retained across configuration changes.
+     * <p>
+     * Its members are injected again once it is restored, but the dependencies of its {@code
+     * Inject} constructor are not, so none of them may reach the Activity or Fragment graph:
+     * <ul>
+     * <li>A binding of the View modules that is scoped, or whose type is a Context, belongs to
+     * the View graph.</li>
+     * <li>A binding of the Application modules never reaches the View graph.</li>
+     * <li>A class with an {@code Inject} constructor belongs to the View graph if it is scoped to
+     * the Activity or the Fragment, or if any of its dependencies reaches it.</li>
+     * </ul>
+     * A dependency whose binding cannot be resolved is assumed to reach the View graph.
+     *
+     * @param presenterName The qualified name of the Presenter
+     * @return true if the Presenter can be retained, false otherwise
+     */
+    private boolean isRetainable(String presenterName) {
+        TypeElement presenter = elementUtils.getTypeElement(presenterName);
+        if (presenter == null) {
+            return false;
+        }
+        ExecutableElement constructor = findInjectConstructor(presenter);
+        return constructor != null
+               && !dependsOnViewGraph((DeclaredType) presenter.asType(), constructor,
+                                      new HashSet<String>());
+    }
+
+    private boolean dependsOnViewGraph(DeclaredType owner, ExecutableElement constructor,
+                                       Set<String> visited) {
+        List<? extends TypeMirror> types =
+                ((ExecutableType) Utils.typeUtils.asMemberOf(owner, constructor))
+                        .getParameterTypes();
+        for (int i = 0; i < types.size(); i++) {
+            if (reachesViewGraph(types.get(i), constructor.getParameters().get(i), visited)) {
+                return true;
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(
+                ((TypeElement) owner.asElement()).getEnclosedElements())) {
+            if (field.getAnnotation(Inject.class) != null
+                && reachesViewGraph(Utils.typeUtils.asMemberOf(owner, field), field, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean dependsOnViewGraph(ExecutableElement provides, Set<String> visited) {
+        for (VariableElement parameter : provides.getParameters()) {
+            if (reachesViewGraph(parameter.asType(), parameter, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a dependency reaches the Activity or Fragment graph.
+     *
+     * @param type      The type of the dependency
+     * @param injection The element it is injected into, which holds its qualifier
+     * @param visited   The keys of the dependencies already checked
+     */
+    private boolean reachesViewGraph(TypeMirror type, Element injection, Set<String> visited) {
+        String key = getBindingKey(type, injection);
+        if (!visited.add(key)) {
+            return false;
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declaredType = (DeclaredType) type;
+            String name = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+            for (String wrapper : WRAPPER_CLASSES) {
+                if (name.equals(wrapper) && declaredType.getTypeArguments().size() == 1) {
+                    return reachesViewGraph(declaredType.getTypeArguments().get(0), injection,
+                                            visited);
+                }
+            }
+        }
+
+        List<ExecutableElement> viewBindings = getViewBindings().get(key);
+        if (viewBindings != null) {
+            for (ExecutableElement provides : viewBindings) {
+                if (isScoped(provides)
+                    || isViewClass(provides.getReturnType(), CONTEXT_CLASS)
+                    || dependsOnViewGraph(provides, visited)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (getApplicationBindings().containsKey(key)) {
+            return false;
+        }
+
+        // only unqualified classes can be bound through their Inject constructor
+        if (type.getKind() != TypeKind.DECLARED || !getQualifier(injection).isEmpty()) {
+            return true;
+        }
+        DeclaredType declaredType = (DeclaredType) type;
+        TypeElement element = (TypeElement) declaredType.asElement();
+        ExecutableElement constructor = findInjectConstructor(element);
+        return constructor == null
+               || element.getAnnotation(PerActivity.class) != null
+               || element.getAnnotation(PerFragment.class) != null
+               || isViewClass(type, VIEW_CLASSES)
+               || dependsOnViewGraph(declaredType, constructor, visited);
+    }
+
+    private boolean isViewClass(TypeMirror type, String... viewClasses) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        for (String viewClass : viewClasses) {
+            if (name.equals(viewClass) || Utils.inheritsFromClass(element, viewClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isScoped(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (annotation.getAnnotationType().asElement().getAnnotation(Scope.class) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getQualifier(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (annotation.getAnnotationType().asElement().getAnnotation(Qualifier.class)
+                != null) {
+                return annotation.toString();
+            }
+        }
+        return "";
+    }
+
+    private String getBindingKey(TypeMirror type, Element element) {
+        return getQualifier(element) + type;
+    }
+
+    private Map<String, List<ExecutableElement>> getViewBindings() {
+        if (viewBindings == null) {
+            viewBindings = findBindings(viewModules);
+        }
+        return viewBindings;
+    }
+
+    private Map<String, List<ExecutableElement>> getApplicationBindings() {
+        if (applicationBindings == null) {
+            applicationBindings = findBindings(applicationModules);
+        }
+        return applicationBindings;
+    }
+
+    /**
+     * Collects the Provides methods of the given modules, the modules they include and their
+     * super classes, by the key of their binding.
+     */
+    private Map<String, List<ExecutableElement>> findBindings(List<String> moduleNames) {
+        Map<String, List<ExecutableElement>> bindings = new HashMap<>();
+        Set<String> visited = new HashSet<>();
+        List<TypeElement> modules = new ArrayList<>();
+        for (String moduleName : moduleNames) {
+            TypeElement module = elementUtils.getTypeElement(moduleName);
+            if (module != null) {
+                modules.add(module);
+            }
+        }
+        while (!modules.isEmpty()) {
+            TypeElement module = modules.remove(modules.size() - 1);
+            if (!visited.add(module.getQualifiedName().toString())) {
+                continue;
+            }
+            for (ExecutableElement method
+                    : ElementFilter.methodsIn(module.getEnclosedElements())) {
+                if (method.getAnnotation(Provides.class) != null) {
+                    String key = getBindingKey(method.getReturnType(), method);
+                    List<ExecutableElement> methods = bindings.get(key);
+                    if (methods == null) {
+                        methods = new ArrayList<>();
+                        bindings.put(key, methods);
+                    }
+                    methods.add(method);
+                }
+            }
+            TypeMirror superclass = module.getSuperclass();
+            if (superclass.getKind() == TypeKind.DECLARED) {
+                modules.add((TypeElement) ((DeclaredType) superclass).asElement());
+            }
+            modules.addAll(findIncludedModules(module));
+        }
+        return bindings;
+    }
+
+    private List<TypeElement> findIncludedModules(TypeElement module) {
+        List<TypeElement> included = new ArrayList<>();
+        for (AnnotationMirror annotation : module.getAnnotationMirrors()) {
+            if (!((TypeElement) annotation.getAnnotationType().asElement())
+                    .getQualifiedName().contentEquals(Module.class.getCanonicalName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : annotation.getElementValues().entrySet()) {
+                if (!value.getKey().getSimpleName().contentEquals("includes")) {
+                    continue;
+                }
+                //noinspection unchecked
+                for (AnnotationValue include
+                        : (List<? extends AnnotationValue>) value.getValue().getValue()) {
+                    TypeMirror includeType = (TypeMirror) include.getValue();
+                    if (includeType.getKind() == TypeKind.DECLARED) {
+                        included.add((TypeElement) ((DeclaredType) includeType).asElement());
+                    }
+                }
+            }
+        }
+        return included;
+    }
+
+    private ExecutableElement findInjectConstructor(TypeElement typeElement) {
+        for (ExecutableElement constructor
+                : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+            if (constructor.getAnnotation(Inject.class) != null) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+}
@@ -14,6 +14,12 @@
 
 package com.kuassivi.october.compiler;
 
+import com.kuassivi.october.Config;
+import com.kuassivi.october.di.ClassIndex;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.TypeSpec;
+
 import java.util.List;
 import java.util.Set;
 
@@ -21,7 +27,9 @@ import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
@@ -169,6 +177,68 @@ public class Utils {
         }
     }
 
+    /**
+     * Retrieves the first Type Argument that an Element passes to one of its super classes.
+     * <p>
+     * Type Arguments of intermediate generic classes are resolved, so the Element does not need
+     * to inherit directly from the super class.
+     *
+     * @param currentClass   The element to inspect
+     * @param superClassName The generic super class
+     * @return The Type Argument, or null if it cannot be resolved
+     */
+    public static TypeElement findTypeArgument(TypeElement currentClass, String superClassName) {
+        TypeMirror currentType = currentClass.asType();
+        while (currentType.getKind() == TypeKind.DECLARED) {
+            List<? extends TypeMirror> superTypes = typeUtils.directSupertypes(currentType);
+            if (superTypes.isEmpty()) {
+                return null;
+            }
+            // The super class always comes first
+            DeclaredType superClassType = (DeclaredType) superTypes.get(0);
+            TypeElement superClassElement = (TypeElement) superClassType.asElement();
+            if (superClassElement.getQualifiedName().toString().equals(superClassName)) {
+                List<? extends TypeMirror> typeArguments = superClassType.getTypeArguments();
+                if (typeArguments.isEmpty()
+                    || typeArguments.get(0).getKind() != TypeKind.DECLARED) {
+                    return null;
+                }
+                return (TypeElement) typeUtils.asElement(typeArguments.get(0));
+            }
+            currentType = superClassType;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a class can be referenced from the code generated in the given package.
+     *
+     * @param typeElement The class
+     * @param packageName The package of the generated code
+     * @return true if the class and every enclosing class are accessible, false otherwise
+     */
+    public static boolean isAccessibleFrom(TypeElement typeElement, String packageName) {
+        boolean isSamePackage = elementUtils.getPackageOf(typeElement)
+                                            .getQualifiedName().contentEquals(packageName);
+        for (Element element = typeElement;
+             element instanceof TypeElement;
+             element = element.getEnclosingElement()) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)
+                || !isSamePackage && !modifiers.contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name of a class as returned by {@link Class#getName()} at runtime.
+     */
+    public static String getBinaryName(TypeElement typeElement) {
+        return elementUtils.getBinaryName(typeElement).toString();
+    }
+
     /**
      * Checks for a TypeElement whether it contains Type Parameters.
      *
@@ -178,4 +248,26 @@ public class Utils {
     public static boolean containsTypeParameters(TypeElement currentClass) {
         return currentClass.getTypeParameters().size() > 0;
     }
+
+    /**
+     * Generates the index of the injected classes, so the right inject method is dispatched in
+     * constant time.
+     * <p>
+     * The index is held by its own nested class, so the indexed classes are only loaded on the
+     * first dispatch and not when the enclosing generated class is initialized.
+     *
+     * @param name    The name of the holder class
+     * @param classes The class literals to be indexed, separated by commas
+     * @return The holder class of the index
+     */
+    public static TypeSpec generateClassIndexHolder(String name, CodeBlock classes) {
+        return TypeSpec.classBuilder(name)
+                       .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                       .addField(FieldSpec.builder(ClassIndex.class, Config.CLASS_INDEX_INSTANCE,
+                                                   Modifier.STATIC, Modifier.FINAL)
+                                          .initializer("new $T(\n$>$>$L$<$<)",
+                                                       ClassIndex.class, classes)
+                                          .build())
+                       .build();
+    }
 }
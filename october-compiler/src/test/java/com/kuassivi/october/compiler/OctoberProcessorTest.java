@@ -0,0 +1,424 @@
+package com.kuassivi.october.compiler;
+
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+
+public class OctoberProcessorTest {
+
+    /**
+     * Stand-ins of the October Android classes, which are not in the classpath of the compiler.
+     */
+    private static final List<JavaFileObject> ANDROID_STAND_INS = Arrays.asList(
+            JavaFileObjects.forSourceLines(
+                    "com.kuassivi.october.mvp.OctoberActivity",
+                    "package com.kuassivi.october.mvp;",
+                    "import com.kuassivi.october.mvp.contract.Presentable;",
+                    "public abstract class OctoberActivity<P extends Presentable>",
+                    "        implements OctoberActivityInterface {}"),
+            JavaFileObjects.forSourceLines(
+                    "com.kuassivi.october.mvp.OctoberFragment",
+                    "package com.kuassivi.october.mvp;",
+                    "import com.kuassivi.october.mvp.contract.Presentable;",
+                    "public abstract class OctoberFragment<P extends Presentable>",
+                    "        implements OctoberFragmentInterface {}"),
+            JavaFileObjects.forSourceLines(
+                    "com.kuassivi.october.mvp.OctoberPresenter",
+                    "package com.kuassivi.october.mvp;",
+                    "import com.kuassivi.october.mvp.contract.Viewable;",
+                    "public abstract class OctoberPresenter<V extends Viewable> {}"));
+
+    /**
+     * Stand-in of the component that Dagger generates from the October Application component.
+     */
+    private static final JavaFileObject DAGGER_COMPONENT = JavaFileObjects.forSourceLines(
+            "test.internal.october.di.component.DaggerOctoberApplicationComponent",
+            "package test.internal.october.di.component;",
+            "import com.kuassivi.october.di.module.BaseApplicationModule;",
+            "public final class DaggerOctoberApplicationComponent {",
+            "  public static Builder builder() { return new Builder(); }",
+            "  public static final class Builder {",
+            "    public Builder baseApplicationModule(BaseApplicationModule m) { return this; }",
+            "    public OctoberApplicationComponent build() { return null; }",
+            "  }",
+            "}");
+
+    private static final JavaFileObject APPLICATION = application("", "");
+
+    private static final JavaFileObject MAIN_ACTIVITY = JavaFileObjects.forSourceLines(
+            "test.MainActivity",
+            "package test;",
+            "import com.kuassivi.october.annotation.ActivityComponent;",
+            "import com.kuassivi.october.mvp.OctoberActivity;",
+            "import com.kuassivi.october.mvp.contract.Presentable;",
+            "import com.kuassivi.october.mvp.contract.Viewable;",
+            "@ActivityComponent",
+            "public abstract class MainActivity extends OctoberActivity<MainActivity.Presenter> {",
+            "  public interface Presenter extends Presentable<HiddenView> {}",
+            "  interface HiddenView extends Viewable {}",
+            "}");
+
+    private static final JavaFileObject MAIN_PRESENTER = mainPresenter("");
+
+    private static final JavaFileObject REPOSITORY = JavaFileObjects.forSourceLines(
+            "test.Repository",
+            "package test;",
+            "public interface Repository {}");
+
+    @Test
+    public void skipsTypesNotAccessibleFromTheGeneratedCode() {
+        assertAbout(javaSources())
+                .that(sources(APPLICATION, MAIN_ACTIVITY, MAIN_PRESENTER))
+                .processedWith(new OctoberProcessor())
+                .compilesWithoutError();
+    }
+
+    @Test
+    public void generatesLazyClassIndexesAndTypeTable() {
+        JavaFileObject expected = JavaFileObjects.forSourceLines(
+                "com.kuassivi.october.OctoberDagger",
+                "package com.kuassivi.october;",
+                "import com.kuassivi.october.di.ClassIndex;",
+                "import com.kuassivi.october.di.module.BaseActivityModule;",
+                "import com.kuassivi.october.di.module.BaseApplicationModule;",
+                "import com.kuassivi.october.di.module.BaseFragmentModule;",
+                "import com.kuassivi.october.mvp.OctoberActivityInterface;",
+                "import com.kuassivi.october.mvp.OctoberFragmentInterface;",
+                "import com.kuassivi.october.mvp.TypeResolver;",
+                "import java.lang.Class;",
+                "import java.lang.Override;",
+                "import test.App;",
+                "import test.MainActivity;",
+                "import test.internal.october.di.PresenterActivityInjector;",
+                "import test.internal.october.di.PresenterFragmentInjector;",
+                "import test.internal.october.di.component.DaggerOctoberApplicationComponent;",
+                "import test.internal.october.di.component.OctoberActivityComponent;",
+                "import test.internal.october.di.component.OctoberApplicationComponent;",
+                "import test.internal.october.di.component.OctoberFragmentComponent;",
+                "import test.internal.october.di.component.helper.HelperActivityComponent;",
+                "public class OctoberDagger implements OctoberComponentInitializer<App> {",
+                "  public static OctoberComponentInitializer<App> initializer() {",
+                "    return new OctoberDagger();",
+                "  }",
+                "  @Override",
+                "  public OctoberComponent initialize(App application) {",
+                "    TypeResolver.register(createTypeTable());",
+                "    final OctoberApplicationComponent component =",
+                "        DaggerOctoberApplicationComponent.builder()",
+                "            .baseApplicationModule(new BaseApplicationModule(application)).build();",
+                "    component.inject(application);",
+                "    return new OctoberComponent() {",
+                "      private OctoberActivityComponent aComponent;",
+                "      private OctoberFragmentComponent fComponent;",
+                "      @Override",
+                "      public OctoberApplicationComponent getOctoberApplicationComponent() {",
+                "        return component;",
+                "      }",
+                "      @SuppressWarnings(\"unchecked\")",
+                "      @Override",
+                "      public HelperActivityComponent getHelperActivityComponent() {",
+                "        return component.helperActivityComponent();",
+                "      }",
+                "      @Override",
+                "      public PresenterActivityInjector getPresenterActivityInjector() {",
+                "        return new PresenterActivityInjector();",
+                "      }",
+                "      @Override",
+                "      public PresenterFragmentInjector getPresenterFragmentInjector() {",
+                "        return new PresenterFragmentInjector();",
+                "      }",
+                "      @Override",
+                "      public void apply(BaseActivityModule m) {",
+                "        aComponent = getHelperActivityComponent().apply(m);",
+                "      }",
+                "      @Override",
+                "      public void apply(BaseFragmentModule m) {",
+                "        fComponent = getActivityComponent().helperFragmentComponent().apply(m);",
+                "      }",
+                "      @SuppressWarnings(\"unchecked\")",
+                "      @Override",
+                "      public OctoberActivityComponent getActivityComponent() {",
+                "        return aComponent;",
+                "      }",
+                "      @SuppressWarnings(\"unchecked\")",
+                "      @Override",
+                "      public OctoberFragmentComponent getFragmentComponent() {",
+                "        return fComponent;",
+                "      }",
+                "      @Override",
+                "      public void inject(OctoberActivityInterface o) {",
+                "        switch (ActivityIndex.INSTANCE.indexOf(o.getClass())) {",
+                "          case 0:",
+                "            getActivityComponent().inject((MainActivity)o);",
+                "            break;",
+                "        }",
+                "      }",
+                "      @Override",
+                "      public void inject(OctoberFragmentInterface o) {",
+                "      }",
+                "    };",
+                "  }",
+                "  private static TypeResolver.TypeTable createTypeTable() {",
+                "    return new TypeResolver.TypeTable() {",
+                "      @Override",
+                "      public Class<?> typeOf(Class<?> clazz) {",
+                "        switch (clazz.getName()) {",
+                "          case \"test.MainActivity\":",
+                "            return MainActivity.Presenter.class;",
+                "          default:",
+                "            return null;",
+                "        }",
+                "      }",
+                "    };",
+                "  }",
+                "  private static final class ActivityIndex {",
+                "    static final ClassIndex INSTANCE = new ClassIndex(MainActivity.class);",
+                "  }",
+                "  private static final class FragmentIndex {",
+                "    static final ClassIndex INSTANCE = new ClassIndex();",
+                "  }",
+                "}");
+
+        assertAbout(javaSources())
+                .that(sources(APPLICATION, MAIN_ACTIVITY, MAIN_PRESENTER))
+                .processedWith(new OctoberProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(expected);
+    }
+
+    @Test
+    public void reinjectsTheMembersOfRetainablePresenters() {
+        assertAbout(javaSources())
+                .that(sources(APPLICATION, MAIN_ACTIVITY, MAIN_PRESENTER))
+                .processedWith(new OctoberProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(presenterActivityInjector(true));
+    }
+
+    @Test
+    public void doesNotRetainPresentersThatDependOnTheActivity() {
+        JavaFileObject screen = JavaFileObjects.forSourceLines(
+                "test.Screen",
+                "package test;",
+                "import javax.inject.Inject;",
+                "public class Screen {",
+                "  @Inject public Screen(android.app.Activity activity) {}",
+                "}");
+
+        assertAbout(javaSources())
+                .that(sources(APPLICATION, MAIN_ACTIVITY, screen,
+                              mainPresenter("dagger.Lazy<Screen> screen")))
+                .processedWith(new OctoberProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(presenterActivityInjector(false));
+    }
+
+    @Test
+    public void doesNotRetainPresentersThatDependOnScopedModuleBindings() {
+        JavaFileObject application = application(
+                "",
+                "@dagger.Provides @com.kuassivi.october.annotation.PerActivity"
+                + " Repository provideRepository() { return null; }");
+
+        assertAbout(javaSources())
+                .that(sources(application, MAIN_ACTIVITY, REPOSITORY,
+                              mainPresenter("Repository repository")))
+                .processedWith(new OctoberProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(presenterActivityInjector(false));
+    }
+
+    @Test
+    public void doesNotRetainPresentersThatDependOnTheActivityContext() {
+        JavaFileObject application = application(
+                "",
+                "@dagger.Provides android.content.Context provideContext(android.app.Activity a)"
+                + " { return a; }");
+
+        assertAbout(javaSources())
+                .that(sources(application, MAIN_ACTIVITY,
+                              mainPresenter("android.content.Context context")))
+                .processedWith(new OctoberProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(presenterActivityInjector(false));
+    }
+
+    @Test
+    public void doesNotRetainPresentersThatDependOnUnresolvedBindings() {
+        assertAbout(javaSources())
+                .that(sources(APPLICATION, MAIN_ACTIVITY, REPOSITORY,
+                              mainPresenter("javax.inject.Provider<Repository> repository")))
+                .processedWith(new OctoberProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(presenterActivityInjector(false));
+    }
+
+    @Test
+    public void retainsPresentersThatDependOnApplicationBindings() {
+        JavaFileObject application = application(
+                "@dagger.Provides @javax.inject.Singleton"
+                + " Repository provideRepository() { return null; }"
+                + " @dagger.Provides @javax.inject.Named(\"api\")"
+                + " String provideUrl() { return null; }",
+                "@dagger.Provides @javax.inject.Named(\"screen\")"
+                + " String provideTitle(android.app.Activity a) { return null; }");
+
+        assertAbout(javaSources())
+                .that(sources(application, MAIN_ACTIVITY, REPOSITORY,
+                              mainPresenter("Repository repository,"
+                                            + " @javax.inject.Named(\"api\") String url")))
+                .processedWith(new OctoberProcessor())
+                .compilesWithoutError()
+                .and()
+                .generatesSources(presenterActivityInjector(true));
+    }
+
+    /**
+     * Returns the Application whose modules have the given members.
+     */
+    private static JavaFileObject application(String applicationModule, String activityModule) {
+        return JavaFileObjects.forSourceLines(
+                "test.App",
+                "package test;",
+                "import com.kuassivi.october.annotation.ApplicationComponent;",
+                "import com.kuassivi.october.di.module.OctoberActivityModule;",
+                "import com.kuassivi.october.di.module.OctoberApplicationModule;",
+                "import com.kuassivi.october.di.module.OctoberFragmentModule;",
+                "@ApplicationComponent(application = App.AppModule.class,",
+                "                      activity = App.ActivityModule.class,",
+                "                      fragment = App.FragmentModule.class)",
+                "public class App extends android.app.Application {",
+                "  @dagger.Module public static class AppModule implements OctoberApplicationModule {",
+                "    " + applicationModule,
+                "  }",
+                "  @dagger.Module public static class ActivityModule implements OctoberActivityModule {",
+                "    " + activityModule,
+                "  }",
+                "  @dagger.Module public static class FragmentModule implements OctoberFragmentModule {}",
+                "}");
+    }
+
+    /**
+     * Returns the Presenter whose Inject constructor takes the given parameters.
+     */
+    private static JavaFileObject mainPresenter(String parameters) {
+        return JavaFileObjects.forSourceLines(
+                "test.MainPresenter",
+                "package test;",
+                "import com.kuassivi.october.annotation.PerActivity;",
+                "import com.kuassivi.october.mvp.OctoberPresenter;",
+                "import javax.inject.Inject;",
+                "@PerActivity",
+                "public abstract class MainPresenter",
+                "        extends OctoberPresenter<MainActivity.HiddenView>",
+                "        implements MainActivity.Presenter {",
+                "  @Inject public MainPresenter(" + parameters + ") {}",
+                "}");
+    }
+
+    /**
+     * Returns the Presenter injector of the Activities, with a retainable Presenter or not.
+     */
+    private static JavaFileObject presenterActivityInjector(boolean retainable) {
+        List<String> lines = new ArrayList<>(Arrays.asList(
+                "package test.internal.october.di;",
+                "import android.support.annotation.Nullable;",
+                "import com.kuassivi.october.di.ClassIndex;",
+                "import com.kuassivi.october.di.OctoberPresenterActivityInjectable;",
+                "import dagger.Lazy;",
+                "import dagger.MembersInjector;",
+                "import java.lang.Class;",
+                "import java.lang.Object;",
+                "import java.lang.Override;",
+                "import javax.inject.Inject;",
+                "import test.MainActivity;",
+                "import test.MainPresenter;",
+                "public class PresenterActivityInjector extends OctoberPresenterActivityInjectable {",
+                "  @Inject",
+                "  MembersInjector<Feature0> feature0Injector;",
+                "  private Feature0 feature0;",
+                "  private Feature0 feature0() {",
+                "    if (feature0 == null) {",
+                "      feature0 = new Feature0();",
+                "      feature0Injector.injectMembers(feature0);",
+                "    }",
+                "    return feature0;",
+                "  }",
+                "  @Override",
+                "  @Nullable",
+                "  public <P> Lazy<?> provide(Class<P> arg0) {",
+                "    switch (PresenterIndex.INSTANCE.indexOf(arg0)) {",
+                "      case 0:",
+                "        return feature0().presenterLazy1;",
+                "      default:",
+                "        return null;",
+                "    }",
+                "  }",
+                "  @Override",
+                "  public <P> boolean isRetainable(Class<P> arg0) {"));
+        if (retainable) {
+            lines.addAll(Arrays.asList(
+                    "    switch (PresenterIndex.INSTANCE.indexOf(arg0)) {",
+                    "      case 0:",
+                    "        return true;",
+                    "      default:",
+                    "        return false;",
+                    "    }",
+                    "  }",
+                    "  @Override",
+                    "  public <P> void reinject(Class<P> arg0, Object arg1) {",
+                    "    switch (PresenterIndex.INSTANCE.indexOf(arg0)) {",
+                    "      case 0:",
+                    "        feature0().presenterInjector1.injectMembers((MainPresenter) arg1);",
+                    "        break;",
+                    "    }",
+                    "  }",
+                    "  public static class Feature0 {",
+                    "    @Inject",
+                    "    Lazy<MainPresenter> presenterLazy1;",
+                    "    @Inject",
+                    "    MembersInjector<MainPresenter> presenterInjector1;",
+                    "  }"));
+        } else {
+            lines.addAll(Arrays.asList(
+                    "    return false;",
+                    "  }",
+                    "  @Override",
+                    "  public <P> void reinject(Class<P> arg0, Object arg1) {",
+                    "  }",
+                    "  public static class Feature0 {",
+                    "    @Inject",
+                    "    Lazy<MainPresenter> presenterLazy1;",
+                    "  }"));
+        }
+        lines.addAll(Arrays.asList(
+                "  private static final class PresenterIndex {",
+                "    static final ClassIndex INSTANCE = new ClassIndex(MainActivity.Presenter.class);",
+                "  }",
+                "}"));
+        return JavaFileObjects.forSourceLines("test.internal.october.di.PresenterActivityInjector",
+                                              lines);
+    }
+
+    private static List<JavaFileObject> sources(JavaFileObject... sources) {
+        List<JavaFileObject> all = new ArrayList<>(ANDROID_STAND_INS);
+        all.add(DAGGER_COMPONENT);
+        all.addAll(Arrays.asList(sources));
+        return all;
+    }
+}
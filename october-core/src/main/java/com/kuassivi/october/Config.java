@@ -32,6 +32,9 @@ public interface Config {
     String FRAGMENT_COMPONENT             = "OctoberFragmentComponent";
     String ACTIVITY_COMPONENT_SIMPLE_NAME = "ActivityComponent";
     String FRAGMENT_COMPONENT_SIMPLE_NAME = "FragmentComponent";
+    String ACTIVITY_INDEX                 = "ActivityIndex";
+    String FRAGMENT_INDEX                 = "FragmentIndex";
+    String CLASS_INDEX_INSTANCE           = "INSTANCE";
 
     String HELPER_COMPONENT_METHOD          = "apply";
     String HELPER_ACTIVITY_COMPONENT        = "HelperActivityComponent";
@@ -40,8 +43,15 @@ public interface Config {
     String HELPER_FRAGMENT_COMPONENT_METHOD = StringUtils.uncapitalize(HELPER_FRAGMENT_COMPONENT);
 
     String PRESENTER_INJECTOR_METHOD   = "provide";
+    String PRESENTER_RETAINABLE_METHOD = "isRetainable";
+    String PRESENTER_REINJECT_METHOD   = "reinject";
     String PRESENTER_ACTIVITY_INJECTOR = "PresenterActivityInjector";
     String PRESENTER_FRAGMENT_INJECTOR = "PresenterFragmentInjector";
+    String PRESENTER_INDEX             = "PresenterIndex";
+    String PRESENTER_FEATURE           = "Feature";
 
     String DAGGER_APPLICATION_COMPONENT_METHOD = "initialize";
+    String DAGGER_INITIALIZER_METHOD           = "initializer";
+
+    String TYPE_TABLE_METHOD = "createTypeTable";
 }
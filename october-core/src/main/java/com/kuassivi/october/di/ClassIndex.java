@@ -0,0 +1,72 @@
+package com.kuassivi.october.di;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Constant time lookup of the index that the October compiler has assigned to a class.
+ * <p>
+ * The generated injectors dispatch with a switch over these indexes instead of comparing the
+ * requested class against every annotated class, so their cost does not grow with the number of
+ * Activities, Fragments and Presenters of the application.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ * <code>private static final ClassIndex PRESENTERS =
+ *     new ClassIndex(MainPresenter.class, DetailPresenter.class);
+ *
+ * public Lazy&lt;?&gt; provide(Class&lt;?&gt; clazz) {
+ *   switch (PRESENTERS.indexOf(clazz)) {
+ *     case 0: return mainPresenterLazy;
+ *     case 1: return detailPresenterLazy;
+ *     default: return null;
+ *   }
+ * }
+ * </code>
+ * </pre>
+ */
+public final class ClassIndex {
+
+    public static final int NOT_FOUND = -1;
+
+    private final ConcurrentHashMap<Class<?>, Integer> indexes;
+
+    /**
+     * @param classes The indexed classes, the index of every class is its position
+     */
+    public ClassIndex(Class<?>... classes) {
+        this.indexes = new ConcurrentHashMap<>(classes.length * 4 / 3 + 1);
+        for (int i = 0; i < classes.length; i++) {
+            this.indexes.putIfAbsent(classes[i], i);
+        }
+    }
+
+    /**
+     * Returns the index of the given class.
+     * <p>
+     * A class that has not been indexed takes the index of its closest indexed super class, just
+     * like an {@code instanceof} check would do, and the result is cached for the next calls.
+     *
+     * @param clazz The class to look for
+     * @return The index of the class, or {@link #NOT_FOUND}
+     */
+    public int indexOf(Class<?> clazz) {
+        if (clazz == null) {
+            return NOT_FOUND;
+        }
+        Integer index = indexes.get(clazz);
+        if (index == null) {
+            index = NOT_FOUND;
+            for (Class<?> superClass = clazz.getSuperclass();
+                 superClass != null;
+                 superClass = superClass.getSuperclass()) {
+                Integer superIndex = indexes.get(superClass);
+                if (superIndex != null) {
+                    index = superIndex;
+                    break;
+                }
+            }
+            indexes.putIfAbsent(clazz, index);
+        }
+        return index;
+    }
+}
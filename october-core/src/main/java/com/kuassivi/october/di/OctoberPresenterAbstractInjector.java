@@ -28,4 +28,28 @@ public abstract class OctoberPresenterAbstractInjector implements OctoberPresent
      */
     @Nullable
     public abstract <P> Lazy<?> provide(Class<P> clazz);
+
+    /**
+     * Returns whether the Presenter of the given Presentable interface can be retained across
+     * configuration changes.
+     * <p>
+     * A Presenter is retainable when its {@code @Inject} constructor does not depend on the
+     * Activity or Fragment graph, since those dependencies would keep the destroyed View alive.
+     * Its injected members are replaced through {@link #reinject(Class, Object)} instead.
+     *
+     * @param clazz requested Presenter class.
+     * @param <P>   Presenter interface type.
+     * @return true if the Presenter can be retained, false otherwise
+     */
+    public abstract <P> boolean isRetainable(Class<P> clazz);
+
+    /**
+     * Injects the members of a retained Presenter again, from the graph of the View that restores
+     * it.
+     *
+     * @param clazz     requested Presenter class.
+     * @param presenter the retained Presenter.
+     * @param <P>       Presenter interface type.
+     */
+    public abstract <P> void reinject(Class<P> clazz, Object presenter);
 }
@@ -0,0 +1,24 @@
+package com.kuassivi.october.exception;
+
+import com.kuassivi.october.repository.policy.CircuitBreakerPolicy;
+
+/**
+ * Thrown by the {@link CircuitBreakerPolicy} when a call is rejected because its endpoint has
+ * failed too many times in a row.
+ */
+public class CircuitOpenException extends OctoberIOException {
+
+    private final String endpoint;
+
+    /**
+     * @param endpoint The endpoint whose circuit is open
+     */
+    public CircuitOpenException(String endpoint) {
+        super("Circuit open: " + endpoint);
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
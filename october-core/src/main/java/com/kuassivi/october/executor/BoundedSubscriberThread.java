@@ -0,0 +1,87 @@
+package com.kuassivi.october.executor;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * {@link SubscriberThread} backed by a bounded and instrumented pool of threads.
+ * <p>
+ * Unlike {@link Schedulers#io()}, the number of threads never grows beyond the given max, so the
+ * exceeding tasks wait in the queue instead of spawning new threads.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ * <code>&#64;Provides
+ * &#64;Singleton
+ * SubscriberThread provideSubscriberThread() {
+ *   return new BoundedSubscriberThread();
+ * }
+ * </code>
+ * </pre>
+ */
+public class BoundedSubscriberThread implements SubscriberThread, ExecutorMetrics {
+
+    private final InstrumentedThreadPool pool;
+    private final Scheduler              scheduler;
+
+    /**
+     * Creates a pool sized after the number of processors of the device.
+     */
+    public BoundedSubscriberThread() {
+        this(InstrumentedThreadPool.defaultMaxThreads());
+    }
+
+    /**
+     * @param maxThreads Max number of threads
+     */
+    public BoundedSubscriberThread(int maxThreads) {
+        this.pool = new InstrumentedThreadPool("october-bounded", maxThreads,
+                                               new LinkedBlockingQueue<>());
+        this.scheduler = Schedulers.from(pool);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return pool.getQueueDepth();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    @Override
+    public long getCompletedTaskCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    @Override
+    public long getAverageWaitNanos() {
+        return pool.getAverageWaitNanos();
+    }
+
+    @Override
+    public long getMaxWaitNanos() {
+        return pool.getMaxWaitNanos();
+    }
+
+    @Override
+    public long getAverageExecutionNanos() {
+        return pool.getAverageExecutionNanos();
+    }
+
+    @Override
+    public String toString() {
+        return pool.toString();
+    }
+}
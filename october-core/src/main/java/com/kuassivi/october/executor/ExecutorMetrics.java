@@ -0,0 +1,39 @@
+package com.kuassivi.october.executor;
+
+/**
+ * Runtime metrics of a thread pool backing a {@link ThreadExecutor}.
+ * <p>
+ * Useful to detect saturated pools or slow tasks without attaching a profiler.
+ */
+public interface ExecutorMetrics {
+
+    /**
+     * Returns the number of tasks waiting to be executed.
+     */
+    int getQueueDepth();
+
+    /**
+     * Returns the approximate number of threads that are executing tasks.
+     */
+    int getActiveCount();
+
+    /**
+     * Returns the number of tasks that have completed their execution.
+     */
+    long getCompletedTaskCount();
+
+    /**
+     * Returns the average time, in nanoseconds, that a task waits before being executed.
+     */
+    long getAverageWaitNanos();
+
+    /**
+     * Returns the max time, in nanoseconds, that a task has waited before being executed.
+     */
+    long getMaxWaitNanos();
+
+    /**
+     * Returns the average time, in nanoseconds, that a task takes to execute.
+     */
+    long getAverageExecutionNanos();
+}
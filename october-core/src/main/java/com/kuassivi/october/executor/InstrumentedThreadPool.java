@@ -0,0 +1,135 @@
+package com.kuassivi.october.executor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded {@link ThreadPoolExecutor} that measures how long its tasks wait and run.
+ * <p>
+ * Idle threads are released after {@link #KEEP_ALIVE_SECONDS}.
+ */
+class InstrumentedThreadPool extends ThreadPoolExecutor implements ExecutorMetrics {
+
+    static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final AtomicLong totalWaitNanos      = new AtomicLong();
+    private final AtomicLong maxWaitNanos        = new AtomicLong();
+    private final AtomicLong totalExecutionNanos = new AtomicLong();
+    private final AtomicLong measuredTaskCount   = new AtomicLong();
+
+    /**
+     * @param name       Prefix of the thread names
+     * @param maxThreads Max number of threads
+     * @param queue      Queue that holds the tasks before they are executed
+     */
+    InstrumentedThreadPool(String name, int maxThreads, BlockingQueue<Runnable> queue) {
+        super(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue,
+              new NamedThreadFactory(name));
+        allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the default max number of threads for the current device.
+     */
+    static int defaultMaxThreads() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        return Math.max(2, Math.min(cpus * 2, 8));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(command, TimedTask.NORMAL_PRIORITY);
+    }
+
+    /**
+     * Executes the command with the given priority.
+     */
+    void execute(Runnable command, int priority) {
+        super.execute(command instanceof TimedTask
+                      ? command
+                      : new TimedTask(command, priority));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        if (r instanceof TimedTask) {
+            long wait = ((TimedTask) r).start();
+            totalWaitNanos.addAndGet(wait);
+            long max;
+            do {
+                max = maxWaitNanos.get();
+            } while (wait > max && !maxWaitNanos.compareAndSet(max, wait));
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        if (r instanceof TimedTask) {
+            totalExecutionNanos.addAndGet(((TimedTask) r).elapsed());
+            measuredTaskCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    @Override
+    public long getAverageWaitNanos() {
+        long count = measuredTaskCount.get();
+        return count > 0
+               ? totalWaitNanos.get() / count
+               : 0;
+    }
+
+    @Override
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    @Override
+    public long getAverageExecutionNanos() {
+        long count = measuredTaskCount.get();
+        return count > 0
+               ? totalExecutionNanos.get() / count
+               : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[threads=%d,active=%d,queued=%d,completed=%d,"
+                             + "avgWait=%dus,maxWait=%dus,avgExecution=%dus]",
+                             getClass().getSimpleName(), getPoolSize(), getActiveCount(),
+                             getQueueDepth(), getCompletedTaskCount(),
+                             TimeUnit.NANOSECONDS.toMicros(getAverageWaitNanos()),
+                             TimeUnit.NANOSECONDS.toMicros(getMaxWaitNanos()),
+                             TimeUnit.NANOSECONDS.toMicros(getAverageExecutionNanos()));
+    }
+
+    /**
+     * Creates named daemon threads.
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final String        name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
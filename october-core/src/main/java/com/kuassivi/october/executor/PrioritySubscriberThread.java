@@ -0,0 +1,95 @@
+package com.kuassivi.october.executor;
+
+import java.util.concurrent.PriorityBlockingQueue;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * {@link SubscriberThread} backed by a bounded and instrumented pool of threads, where the tasks
+ * of prioritized Use Cases jump the queue.
+ * <p>
+ * Provide the {@link #prioritized()} instance to the Use Cases whose results are visible in the
+ * UI, and this one to the rest of them, i.e. prefetching or synchronization Use Cases.
+ * <p>
+ * Tasks with the same priority are executed in arrival order.
+ */
+public class PrioritySubscriberThread implements SubscriberThread, ExecutorMetrics {
+
+    private final InstrumentedThreadPool pool;
+    private final Scheduler              scheduler;
+    private final SubscriberThread       prioritized;
+
+    /**
+     * Creates a pool sized after the number of processors of the device.
+     */
+    public PrioritySubscriberThread() {
+        this(InstrumentedThreadPool.defaultMaxThreads());
+    }
+
+    /**
+     * @param maxThreads Max number of threads
+     */
+    public PrioritySubscriberThread(int maxThreads) {
+        this.pool = new InstrumentedThreadPool("october-priority", maxThreads,
+                                               new PriorityBlockingQueue<>());
+        this.scheduler = Schedulers.from(
+                command -> pool.execute(command, TimedTask.NORMAL_PRIORITY));
+        final Scheduler highPriorityScheduler = Schedulers.from(
+                command -> pool.execute(command, TimedTask.HIGH_PRIORITY));
+        this.prioritized = () -> highPriorityScheduler;
+    }
+
+    /**
+     * Returns the {@link SubscriberThread} with normal priority.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Returns a {@link SubscriberThread} that shares the same pool, whose tasks are executed
+     * before any task with normal priority.
+     */
+    public SubscriberThread prioritized() {
+        return prioritized;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return pool.getQueueDepth();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    @Override
+    public long getCompletedTaskCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    @Override
+    public long getAverageWaitNanos() {
+        return pool.getAverageWaitNanos();
+    }
+
+    @Override
+    public long getMaxWaitNanos() {
+        return pool.getMaxWaitNanos();
+    }
+
+    @Override
+    public long getAverageExecutionNanos() {
+        return pool.getAverageExecutionNanos();
+    }
+
+    @Override
+    public String toString() {
+        return pool.toString();
+    }
+}
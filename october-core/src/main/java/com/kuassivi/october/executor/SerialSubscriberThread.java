@@ -0,0 +1,175 @@
+package com.kuassivi.october.executor;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * Provides {@link SubscriberThread}s that execute their tasks one at a time per key, on top of a
+ * shared, bounded and instrumented pool of threads.
+ * <p>
+ * Useful for Use Cases that must not run concurrently with others of the same key, i.e. writes
+ * on the same entity, while still running in parallel with the rest of keys.
+ * <p>
+ * A key is only tracked while it has tasks running or waiting, so using dynamic keys, i.e. user
+ * ids or urls, does not grow the memory used.
+ */
+public class SerialSubscriberThread implements ExecutorMetrics {
+
+    private final InstrumentedThreadPool pool;
+
+    private final ConcurrentHashMap<Object, SerialExecutor> executors = new ConcurrentHashMap<>();
+
+    private final AtomicInteger serialQueueDepth = new AtomicInteger();
+
+    /**
+     * Creates a pool sized after the number of processors of the device.
+     */
+    public SerialSubscriberThread() {
+        this(InstrumentedThreadPool.defaultMaxThreads());
+    }
+
+    /**
+     * @param maxThreads Max number of threads
+     */
+    public SerialSubscriberThread(int maxThreads) {
+        this.pool = new InstrumentedThreadPool("october-serial", maxThreads,
+                                               new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Returns the {@link SubscriberThread} for the given key.
+     *
+     * @param key Any object that implements {@link Object#equals(Object)} and {@link
+     *            Object#hashCode()}
+     * @return The {@link SubscriberThread} whose tasks are executed one at a time
+     */
+    public SubscriberThread forKey(final Object key) {
+        final Scheduler scheduler = Schedulers.from(command -> execute(key, command));
+        return () -> scheduler;
+    }
+
+    /**
+     * Returns the number of keys that have tasks running or waiting.
+     */
+    public int getActiveKeyCount() {
+        return executors.size();
+    }
+
+    /**
+     * Queues the task on the executor of the given key, creating it if the key has no other
+     * tasks.
+     */
+    private void execute(Object key, Runnable command) {
+        while (true) {
+            SerialExecutor executor = executors.get(key);
+            if (executor == null) {
+                SerialExecutor created = new SerialExecutor(key);
+                executor = executors.putIfAbsent(key, created);
+                if (executor == null) {
+                    executor = created;
+                }
+            }
+            if (executor.offer(command)) {
+                return;
+            }
+            // the executor went idle and was released meanwhile
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting to be executed, including those waiting for a previous
+     * task of the same key.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public int getQueueDepth() {
+        return pool.getQueueDepth() + serialQueueDepth.get();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    @Override
+    public long getCompletedTaskCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    @Override
+    public long getAverageWaitNanos() {
+        return pool.getAverageWaitNanos();
+    }
+
+    @Override
+    public long getMaxWaitNanos() {
+        return pool.getMaxWaitNanos();
+    }
+
+    @Override
+    public long getAverageExecutionNanos() {
+        return pool.getAverageExecutionNanos();
+    }
+
+    @Override
+    public String toString() {
+        return pool.toString();
+    }
+
+    /**
+     * Executes the tasks of a key one at a time on the shared pool, and releases the key once it
+     * has no more tasks.
+     * <p>
+     * Tasks are timed when they are queued here, so the measured wait includes the time spent
+     * behind previous tasks of the same key.
+     */
+    private class SerialExecutor {
+
+        private final Object               key;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private       Runnable             active;
+        private       boolean              isReleased;
+
+        SerialExecutor(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Queues the task, or returns false if the executor has already been released.
+         */
+        synchronized boolean offer(final Runnable command) {
+            if (isReleased) {
+                return false;
+            }
+            tasks.offer(new TimedTask(() -> {
+                try {
+                    command.run();
+                } finally {
+                    scheduleNext();
+                }
+            }, TimedTask.NORMAL_PRIORITY));
+            serialQueueDepth.incrementAndGet();
+            if (active == null) {
+                scheduleNext();
+            }
+            return true;
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active != null) {
+                serialQueueDepth.decrementAndGet();
+                pool.execute(active);
+            } else {
+                isReleased = true;
+                executors.remove(key, this);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.kuassivi.october.executor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Task that records when it was queued and when it started, ordered by priority and then by
+ * arrival.
+ */
+final class TimedTask implements Runnable, Comparable<TimedTask> {
+
+    static final int NORMAL_PRIORITY = 0;
+    static final int HIGH_PRIORITY   = 10;
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final Runnable command;
+    private final int      priority;
+    private final long     sequence;
+    private final long     queuedAt;
+    private       long     startedAt;
+
+    TimedTask(Runnable command, int priority) {
+        this.command = command;
+        this.priority = priority;
+        this.sequence = SEQUENCE.getAndIncrement();
+        this.queuedAt = System.nanoTime();
+    }
+
+    @Override
+    public void run() {
+        command.run();
+    }
+
+    /**
+     * Marks the task as started and returns the time it has waited, in nanoseconds.
+     */
+    long start() {
+        startedAt = System.nanoTime();
+        return startedAt - queuedAt;
+    }
+
+    /**
+     * Returns the time elapsed since the task started, in nanoseconds.
+     */
+    long elapsed() {
+        return System.nanoTime() - startedAt;
+    }
+
+    @Override
+    public int compareTo(TimedTask another) {
+        if (priority != another.priority) {
+            return priority > another.priority
+                   ? -1
+                   : 1;
+        }
+        return sequence < another.sequence
+               ? -1
+               : (sequence == another.sequence
+                  ? 0
+                  : 1);
+    }
+}
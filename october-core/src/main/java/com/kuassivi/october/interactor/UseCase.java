@@ -16,6 +16,10 @@ package com.kuassivi.october.interactor;
 
 import com.kuassivi.october.executor.ObserverThread;
 import com.kuassivi.october.executor.SubscriberThread;
+import com.kuassivi.october.repository.cache.CacheKey;
+import com.kuassivi.october.repository.cache.MemoryCache;
+
+import java.util.concurrent.TimeUnit;
 
 import rx.Observable;
 import rx.Subscriber;
@@ -27,10 +31,34 @@ import rx.functions.Action0;
  */
 public abstract class UseCase<T> {
 
+    /**
+     * Max number of memoized results kept in memory.
+     */
+    private static final int MAX_MEMOIZED_RESULTS = 64;
+
+    /**
+     * Last results of the memoized Use Cases, shared among every instance.
+     */
+    private static final MemoryCache<CacheKey, MemoizedResult> MEMOIZED_RESULTS =
+            new MemoryCache<>(MAX_MEMOIZED_RESULTS);
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * Clock the memoized values expire against, replaceable in tests.
+     */
+    private static volatile Clock clock = SYSTEM_CLOCK;
+
     private final SubscriberThread subscriberThread;
     private final ObserverThread   observerThread;
     private       Action0          onSubscribe;
     private       Action0          onTerminate;
+    private       long             memoizeTtlNanos;
 
     protected UseCase(SubscriberThread subscriberThread, ObserverThread observerThread) {
         this.subscriberThread = subscriberThread;
@@ -67,6 +95,112 @@ public abstract class UseCase<T> {
      */
     protected abstract Observable<T> provideObservable();
 
+    /**
+     * Override this method to provide the parameters that identify the memoized result along
+     * with this Use Case class.
+     * <p>
+     * Parameters must implement {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     *
+     * @return The current parameters of this Use Case, or null if it has none.
+     * @see #memoize(long, TimeUnit)
+     */
+    protected Object[] provideMemoizationParameters() {
+        return null;
+    }
+
+    /**
+     * Enables the memoization of the last value emitted by this Use Case.
+     * <p>
+     * While the memoized value is not expired, new subscriptions receive it straight away without
+     * performing the provided {@link Observable} again. The value is shared among every instance of
+     * this Use Case class with the same parameters, and {@link #provideObservable()} is not even
+     * called.
+     * <p>
+     * The memoized value is handed to any thread and outlives the subscription that emitted it, so
+     * only memoize immutable values that are not confined to a thread. In particular, never
+     * memoize Realm managed objects: they can only be accessed from the thread of their Realm
+     * instance while it is open. Map them to plain entities before they reach the Use Case.
+     *
+     * @param ttl  Time to live of the memoized value, or 0 to disable the memoization
+     * @param unit Time unit of the ttl
+     * @see #provideMemoizationParameters()
+     * @see #invalidate()
+     */
+    final public void memoize(long ttl, TimeUnit unit) {
+        this.memoizeTtlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Invalidates the memoized value of this Use Case for its current parameters.
+     */
+    final public void invalidate() {
+        MEMOIZED_RESULTS.remove(getMemoizationKey());
+    }
+
+    /**
+     * Invalidates every memoized value of the given Use Case class, no matter its parameters.
+     *
+     * @param useCaseClass The Use Case class
+     */
+    public static void invalidateAll(Class<? extends UseCase> useCaseClass) {
+        for (CacheKey key : MEMOIZED_RESULTS.keys()) {
+            if (key.getName().equals(useCaseClass.getName())) {
+                MEMOIZED_RESULTS.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Invalidates every memoized value.
+     */
+    public static void invalidateAll() {
+        MEMOIZED_RESULTS.evictAll();
+    }
+
+    /**
+     * Replaces the clock the memoized values expire against.
+     *
+     * @param memoizationClock The clock, or null to restore the system one
+     */
+    static void setClock(Clock memoizationClock) {
+        clock = memoizationClock != null
+                ? memoizationClock
+                : SYSTEM_CLOCK;
+    }
+
+    /**
+     * Returns the key of the memoized value of this Use Case.
+     */
+    private CacheKey getMemoizationKey() {
+        return CacheKey.of(getClass().getName(), provideMemoizationParameters());
+    }
+
+    /**
+     * Replays the memoized value if it is not expired, or performs the provided {@link
+     * Observable} memoizing its values otherwise.
+     * <p>
+     * The provided Observable is only built on a miss.
+     */
+    private Observable<T> replayMemoized() {
+        final CacheKey key = getMemoizationKey();
+        final long ttlNanos = this.memoizeTtlNanos;
+        return Observable.defer(() -> {
+            MemoizedResult memoized = MEMOIZED_RESULTS.get(key);
+            if (memoized != null) {
+                if (!memoized.isExpired()) {
+                    //noinspection unchecked
+                    return Observable.just((T) memoized.value);
+                }
+                MEMOIZED_RESULTS.remove(key);
+            }
+            return provideNonNullObservable().doOnNext(value -> {
+                if (value != null) {
+                    MEMOIZED_RESULTS.put(key, new MemoizedResult(value, ttlNanos));
+                }
+            });
+        });
+    }
+
     /**
      * Allows you to apply and Action to the Observable when it subscribes.
      *
@@ -95,13 +229,20 @@ public abstract class UseCase<T> {
      * @return The provided Observable.
      */
     final public Observable<T> asObservable() {
+        Observable<T> ob = memoizeTtlNanos > 0
+                           ? replayMemoized()
+                           : provideNonNullObservable();
+        return ob.compose(buildUseCaseObservable());
+    }
+
+    private Observable<T> provideNonNullObservable() {
         Observable<T> ob = provideObservable();
         if (ob == null) {
             throw new NullPointerException(
                     String.format("provideObservable() method of %s class returns null.",
                                   this.getClass().getSimpleName()));
         }
-        return ob.compose(buildUseCaseObservable());
+        return ob;
     }
 
     /**
@@ -113,4 +254,30 @@ public abstract class UseCase<T> {
     final public Subscription subscribe(Subscriber<T> subscriber) {
         return asObservable().subscribe(subscriber);
     }
+
+    /**
+     * Last value emitted by a memoized Use Case.
+     */
+    private static class MemoizedResult {
+
+        final Object value;
+        final long   expiresAt;
+
+        MemoizedResult(Object value, long ttlNanos) {
+            this.value = value;
+            this.expiresAt = clock.nanoTime() + ttlNanos;
+        }
+
+        boolean isExpired() {
+            return clock.nanoTime() - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * Source of the monotonic time the memoized values expire against.
+     */
+    interface Clock {
+
+        long nanoTime();
+    }
 }
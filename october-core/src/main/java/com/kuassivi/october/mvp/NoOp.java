@@ -19,11 +19,14 @@ package com.kuassivi.october.mvp;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.lang.reflect.Proxy.newProxyInstance;
 
 /**
  * Dynamically proxy to generate a new object instance for a given class by using reflections
+ * <p>
+ * The proxies are stateless, so a single instance is created and cached per interface.
  *
  * @author Jens Dirller
  * @since 1.2.0
@@ -32,13 +35,23 @@ public final class NoOp {
 
     private static final InvocationHandler DEFAULT_VALUE = new DefaultValueInvocationHandler();
 
+    private static final ConcurrentHashMap<Class<?>, Object> PROXIES = new ConcurrentHashMap<>();
+
     private NoOp() {
         // no instances
     }
 
     @SuppressWarnings("unchecked") public static <T> T of(Class<T> interfaceClass) {
-        return (T) newProxyInstance(interfaceClass.getClassLoader(), new Class[] { interfaceClass },
-                DEFAULT_VALUE);
+        Object proxy = PROXIES.get(interfaceClass);
+        if (proxy == null) {
+            proxy = newProxyInstance(interfaceClass.getClassLoader(),
+                    new Class[] { interfaceClass }, DEFAULT_VALUE);
+            Object previous = PROXIES.putIfAbsent(interfaceClass, proxy);
+            if (previous != null) {
+                proxy = previous;
+            }
+        }
+        return (T) proxy;
     }
 
     private static class DefaultValueInvocationHandler implements InvocationHandler {
@@ -0,0 +1,80 @@
+package com.kuassivi.october.mvp;
+
+import android.support.annotation.Nullable;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the type parameter of the October classes, that is the Presentable interface of an
+ * Activity or a Fragment, and the Viewable interface of a Presenter.
+ * <p>
+ * The October compiler registers a table with the type parameter of every annotated class, so
+ * they are resolved without any reflection. The table is looked up by class name, so no class is
+ * loaded before it is resolved. Classes that are not in the table are resolved by reflection.
+ * Every class is resolved only once.
+ */
+public final class TypeResolver {
+
+    private static final ConcurrentHashMap<Class<?>, Class<?>> RESOLVED_TYPES =
+            new ConcurrentHashMap<>();
+
+    private static volatile TypeTable typeTable;
+
+    private TypeResolver() {
+        // no instances
+    }
+
+    /**
+     * Registers the table generated by the October compiler.
+     *
+     * @param table Type parameter of every annotated class
+     */
+    public static void register(TypeTable table) {
+        typeTable = table;
+    }
+
+    /**
+     * Returns the type parameter of the given class.
+     *
+     * @param clazz An Activity, Fragment or Presenter class
+     * @param <T>   Type of the type parameter
+     * @return The type parameter, or null if the class does not declare it
+     */
+    @Nullable
+    public static <T> Class<T> resolve(Class<?> clazz) {
+        Class<?> type = RESOLVED_TYPES.get(clazz);
+        if (type == null) {
+            TypeTable table = typeTable;
+            if (table != null) {
+                type = table.typeOf(clazz);
+            }
+        }
+        if (type == null) {
+            try {
+                Type[] types = ((ParameterizedType) clazz.getGenericSuperclass())
+                        .getActualTypeArguments();
+                type = (Class<?>) types[0];
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+        RESOLVED_TYPES.put(clazz, type);
+        //noinspection unchecked
+        return (Class<T>) type;
+    }
+
+    /**
+     * Table with the type parameter of every annotated class, generated by the October compiler.
+     */
+    public interface TypeTable {
+
+        /**
+         * @param clazz An Activity, Fragment or Presenter class
+         * @return The type parameter of the class, or null if it is not in the table
+         */
+        @Nullable
+        Class<?> typeOf(Class<?> clazz);
+    }
+}
@@ -1,5 +1,6 @@
 package com.kuassivi.october.repository;
 
+import com.kuassivi.october.repository.cache.CacheKey;
 import com.kuassivi.october.repository.datasource.DataSourceFactory;
 import com.kuassivi.october.repository.datasource.DataSourceStrategy;
 
@@ -50,4 +51,16 @@ public abstract class OctoberRepository<T> implements DataSourceFactory.Builder<
     final public <E> Observable<E> build(Observable<E> observable) {
         return ((DataSourceStrategy) this.dataSourceStrategy).delegate(observable);
     }
+
+    /**
+     * Builds an Observable using the delegate method of the inner DataSource Strategy, sharing a
+     * single subscription among the concurrent calls identified by the same key.
+     *
+     * @param key        The key that identifies the Repository call
+     * @param observable The original Observable
+     * @see DataSourceStrategy#delegate(CacheKey, Observable)
+     */
+    final public <E> Observable<E> build(CacheKey key, Observable<E> observable) {
+        return ((DataSourceStrategy) this.dataSourceStrategy).delegate(key, observable);
+    }
 }
@@ -0,0 +1,74 @@
+package com.kuassivi.october.repository.cache;
+
+import java.util.Arrays;
+
+/**
+ * Identifies a Repository call by its method name and its arguments.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ * <code>public Observable&lt;User&gt; getUser(int id) {
+ *   return getDataSourceFactory()
+ *       .createService(cache, CacheKey.of("getUser", id))
+ *       .getUser(id);
+ * }
+ * </code>
+ * </pre>
+ * Arguments must implement {@link Object#equals(Object)} and {@link Object#hashCode()}.
+ */
+public final class CacheKey {
+
+    private final String   name;
+    private final Object[] args;
+    private final int      hashCode;
+
+    private CacheKey(String name, Object[] args) {
+        this.name = name;
+        this.args = args;
+        this.hashCode = 31 * name.hashCode() + Arrays.deepHashCode(args);
+    }
+
+    /**
+     * Creates a new key.
+     *
+     * @param name Name of the Repository method, it should be unique among your Repositories
+     * @param args Arguments of the Repository method
+     * @return a new {@link CacheKey}
+     */
+    public static CacheKey of(String name, Object... args) {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+        return new CacheKey(name, args != null
+                                  ? args.clone()
+                                  : new Object[0]);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheKey)) {
+            return false;
+        }
+        CacheKey that = (CacheKey) o;
+        return hashCode == that.hashCode
+               && name.equals(that.name)
+               && Arrays.deepEquals(args, that.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return name + Arrays.deepToString(args);
+    }
+}
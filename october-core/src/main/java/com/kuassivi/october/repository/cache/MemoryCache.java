@@ -0,0 +1,184 @@
+package com.kuassivi.october.repository.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded in-memory cache with a <i>least recently used</i> eviction policy.
+ * <p>
+ * The size of every entry is measured through the {@link #sizeOf(Object, Object)} method. By
+ * default a {@link Collection} weighs as many units as items it contains, and any other object
+ * weighs one unit, so the max size is roughly the max number of entities kept in memory.
+ * <p>
+ * This class is thread safe.
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public class MemoryCache<K, V> {
+
+    private final LinkedHashMap<K, V> map;
+    private final int                 maxSize;
+
+    private int size;
+    private int hitCount;
+    private int missCount;
+
+    /**
+     * @param maxSize Max size of the cache, measured in the units of {@link #sizeOf(Object,
+     *                Object)}
+     */
+    public MemoryCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.maxSize = maxSize;
+        this.map = new LinkedHashMap<>(0, 0.75f, true);
+    }
+
+    /**
+     * Returns the value for the given key, or null if it is not cached.
+     * <p>
+     * A hit moves the value to the head of the queue.
+     */
+    public final synchronized V get(K key) {
+        V value = map.get(key);
+        if (value != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return value;
+    }
+
+    /**
+     * Caches the value for the given key, evicting the least recently used entries when the max
+     * size is exceeded.
+     *
+     * @return the previous value mapped by the key, or null otherwise
+     */
+    public final V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key == null || value == null");
+        }
+        V previous;
+        List<Map.Entry<K, V>> evicted;
+        synchronized (this) {
+            size += safeSizeOf(key, value);
+            previous = map.put(key, value);
+            if (previous != null) {
+                size -= safeSizeOf(key, previous);
+            }
+            evicted = trimToSize(maxSize);
+        }
+        for (Map.Entry<K, V> entry : evicted) {
+            entryEvicted(entry.getKey(), entry.getValue());
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the entry for the given key if exists.
+     *
+     * @return the previous value mapped by the key, or null otherwise
+     */
+    public final synchronized V remove(K key) {
+        V previous = map.remove(key);
+        if (previous != null) {
+            size -= safeSizeOf(key, previous);
+        }
+        return previous;
+    }
+
+    /**
+     * Clears the cache.
+     */
+    public final synchronized void evictAll() {
+        map.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns a snapshot of the current keys, from the least to the most recently used.
+     */
+    public final synchronized List<K> keys() {
+        return new ArrayList<>(map.keySet());
+    }
+
+    public final synchronized int size() {
+        return size;
+    }
+
+    public final int maxSize() {
+        return maxSize;
+    }
+
+    public final synchronized int hitCount() {
+        return hitCount;
+    }
+
+    public final synchronized int missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the size of the entry in user-defined units.
+     * <p>
+     * Override this method to measure entries in a different way. The size of an entry must not
+     * change while it is cached.
+     */
+    protected int sizeOf(K key, V value) {
+        if (value instanceof Collection) {
+            return Math.max(1, ((Collection) value).size());
+        }
+        return 1;
+    }
+
+    /**
+     * Called for every entry evicted to make room for new ones, but not for the removed entries.
+     * <p>
+     * It is called without holding the lock of the cache. It does nothing by default.
+     */
+    protected void entryEvicted(K key, V value) {
+        // no-op by default
+    }
+
+    private List<Map.Entry<K, V>> trimToSize(int maxSize) {
+        List<Map.Entry<K, V>> evicted = Collections.emptyList();
+        Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<K, V> eldest = iterator.next();
+            size -= safeSizeOf(eldest.getKey(), eldest.getValue());
+            if (evicted.isEmpty()) {
+                evicted = new ArrayList<>(1);
+            }
+            evicted.add(new AbstractMap.SimpleImmutableEntry<>(eldest));
+            iterator.remove();
+        }
+        return evicted;
+    }
+
+    private int safeSizeOf(K key, V value) {
+        int result = sizeOf(key, value);
+        if (result < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+        return result;
+    }
+
+    @Override
+    public final synchronized String toString() {
+        int accesses = hitCount + missCount;
+        int hitPercent = accesses != 0
+                         ? (100 * hitCount / accesses)
+                         : 0;
+        return String.format("MemoryCache[size=%d,maxSize=%d,hits=%d,misses=%d,hitRate=%d%%]",
+                             size, maxSize, hitCount, missCount, hitPercent);
+    }
+}
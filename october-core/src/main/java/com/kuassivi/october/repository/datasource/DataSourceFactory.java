@@ -15,8 +15,10 @@
 package com.kuassivi.october.repository.datasource;
 
 import com.kuassivi.annotation.RepositoryProxyCache;
+import com.kuassivi.october.repository.cache.CacheKey;
 
 import rx.Observable;
+import rx.functions.Func1;
 
 /**
  * DataSource factory which returns a Service to load data from the Local store or from the Cloud.
@@ -43,6 +45,50 @@ public interface DataSourceFactory<T> {
      */
     T createService(RepositoryProxyCache cache);
 
+    /**
+     * Creates a Data Strategy Service which should return a Local or Cloud DataSource depending on
+     * the Cache, consulting first an in-memory cache for the given key.
+     * <p>
+     * The in-memory entry is filled when the Cloud DataSource calls {@link
+     * DataSourceStrategy#persistCache(Object)}, and it is evicted when the Cache expires.
+     *
+     * @param cache The current cache
+     * @param key   The key that identifies the current Repository call
+     * @return the DataSource Service type provided
+     */
+    T createService(RepositoryProxyCache cache, CacheKey key);
+
+    /**
+     * Performs a request following a <i>stale-while-revalidate</i> strategy.
+     * <p>
+     * If the Cache is not expired, the request is performed as {@link
+     * #createService(RepositoryProxyCache, CacheKey)} does. Otherwise, the same request is
+     * performed against the Local and the Cloud DataSources at the same time. The stale copy of
+     * the Local DataSource is emitted as soon as it is available, and the fresh copy of the Cloud
+     * DataSource afterwards. The Cloud DataSource should persist the cache as usual through
+     * {@link DataSourceStrategy#persistCache(Object)}.
+     * <p>
+     * The Local DataSource is unsubscribed once the Cloud DataSource emits or terminates, so a
+     * Local request that never completes, i.e. a live query, does not hold back the fresh copy,
+     * and no stale copy is emitted after it. An error of the Local DataSource is ignored, since
+     * the fresh copy is on its way, while an error of the Cloud DataSource is emitted.
+     * <p>
+     * <b>Usage:</b>
+     * <pre>
+     * <code>return getDataSourceFactory()
+     *     .createStaleWhileRevalidateService(cache, key, dataSource -&gt; dataSource.getUsers());
+     * </code>
+     * </pre>
+     *
+     * @param cache   The current cache
+     * @param key     The key that identifies the current Repository call, or null
+     * @param request The request to perform on the DataSource Service
+     * @param <E>     Type of the emitted items
+     * @return An Observable that emits the stale copy, if exists, and then the fresh one
+     */
+    <E> Observable<E> createStaleWhileRevalidateService(RepositoryProxyCache cache, CacheKey key,
+                                                        Func1<T, Observable<E>> request);
+
     /**
      * Creates a Data Strategy Service which should return always a Cloud DataSource.
      */
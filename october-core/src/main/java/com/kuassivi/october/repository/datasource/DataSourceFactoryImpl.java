@@ -17,6 +17,11 @@
 package com.kuassivi.october.repository.datasource;
 
 import com.kuassivi.annotation.RepositoryProxyCache;
+import com.kuassivi.october.repository.cache.CacheKey;
+import com.kuassivi.october.repository.cache.MemoryCache;
+
+import rx.Observable;
+import rx.functions.Func1;
 
 /**
  * Creates a DataSource Factory that can manage a Cache.
@@ -26,6 +31,8 @@ public class DataSourceFactoryImpl<T extends DataSourceStrategy> implements Data
     private ICloudDataSource cloudDataSource;
     private ILocalDataSource localDataSource;
 
+    private MemoryCache<CacheKey, Object> memoryCache;
+
     private DataSourceFactory.Builder<T> builder;
 
     /**
@@ -45,6 +52,27 @@ public class DataSourceFactoryImpl<T extends DataSourceStrategy> implements Data
         this.localDataSource = localDataSource;
     }
 
+    /**
+     * You must pass each DataSource implementation instances, and an in-memory cache which will be
+     * consulted before the Local DataSource.
+     * <p>
+     * Usually you should share the same {@link MemoryCache} instance among your DataSource
+     * Factories.
+     *
+     * @param cloudDataSource Cloud DataSource instance
+     * @param localDataSource Local DataSource instance
+     * @param memoryCache     In-memory cache instance
+     * @param <C>             ICloudDataSource
+     * @param <L>             ILocalDataSource
+     * @see #createService(RepositoryProxyCache, CacheKey)
+     */
+    public <C extends ICloudDataSource, L extends ILocalDataSource>
+    DataSourceFactoryImpl(C cloudDataSource, L localDataSource,
+                          MemoryCache<CacheKey, Object> memoryCache) {
+        this(cloudDataSource, localDataSource);
+        this.memoryCache = memoryCache;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -63,17 +91,80 @@ public class DataSourceFactoryImpl<T extends DataSourceStrategy> implements Data
      */
     @Override
     final public T createService(RepositoryProxyCache cache) {
+        return createService(cache, null);
+    }
+
+    /**
+     * Returns the right Data Source wrapped over a Service Strategy.
+     * Checks whether the cache exists and isExpired.
+     * <p>
+     * If the cache is not expired, the in-memory cache will be consulted before the Local Data
+     * Source when the {@link Observable} is delegated. If it is expired, the
+     * in-memory entry is evicted and the Cloud Data Source will fill it again through the {@link
+     * DataSourceStrategy#persistCache(Object)} method.
+     *
+     * @param cache the current cache
+     * @param key   the key of the current Repository call, or null to skip the in-memory cache
+     * @return the current Data Source Strategy
+     */
+    @Override
+    final public T createService(RepositoryProxyCache cache, CacheKey key) {
+        return createService(cache, key, cache.isExpired());
+    }
+
+    /**
+     * Returns both the Local and the Cloud Data Sources when the cache is expired, or only the
+     * Local Data Source otherwise.
+     * <p>
+     * The stale copy of the Local Data Source skips the in-memory cache. The Cloud request is
+     * subscribed right after the Local one, not once it completes.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    final public <E> Observable<E> createStaleWhileRevalidateService(
+            RepositoryProxyCache cache, CacheKey key, Func1<T, Observable<E>> request) {
+
+        boolean isExpired = cache.isExpired();
+
+        if (!isExpired) {
+            return request.call(createService(cache, key, false));
+        }
+
+        Observable<E> stale = request.call(createLocalService())
+                                     .filter(entity -> entity != null)
+                                     .onErrorResumeNext(Observable.<E>empty());
+        Observable<E> fresh = request.call(createService(cache, key, true));
+
+        // the stale copy is dropped as soon as the fresh one, or its error, arrives
+        return fresh.publish(revalidation -> Observable.merge(
+                stale.takeUntil(revalidation.materialize()), revalidation));
+    }
+
+    /**
+     * Returns the right Data Source depending on whether the cache is expired.
+     */
+    private T createService(RepositoryProxyCache cache, CacheKey key, boolean isExpired) {
         T dataSourceStrategy;
 
         checkNonNullDataSources();
 
-        if (!cache.isExpired()) {
+        if (!isExpired) {
             //noinspection unchecked
             dataSourceStrategy = (T) this.localDataSource;
         } else {
             //noinspection unchecked
             dataSourceStrategy = (T) this.cloudDataSource;
             dataSourceStrategy.attachCache(cache);
+            if (this.memoryCache != null && key != null) {
+                this.memoryCache.remove(key);
+            }
+        }
+
+        if (this.memoryCache != null && key != null) {
+            dataSourceStrategy.attachMemoryCache(this.memoryCache, key);
+        } else {
+            dataSourceStrategy.attachMemoryCache(null, null);
         }
 
         builder.attach(dataSourceStrategy);
@@ -90,6 +181,8 @@ public class DataSourceFactoryImpl<T extends DataSourceStrategy> implements Data
     final public T createCloudService() {
         checkNonNullCloudDataSources();
         //noinspection unchecked
+        ((T) this.cloudDataSource).attachMemoryCache(null, null);
+        //noinspection unchecked
         builder.attach((T) this.cloudDataSource);
         //noinspection unchecked
         return (T) this.cloudDataSource;
@@ -104,6 +197,8 @@ public class DataSourceFactoryImpl<T extends DataSourceStrategy> implements Data
     final public T createLocalService() {
         checkNonNullLocalDataSources();
         //noinspection unchecked
+        ((T) this.localDataSource).attachMemoryCache(null, null);
+        //noinspection unchecked
         builder.attach((T) this.localDataSource);
         //noinspection unchecked
         return (T) this.localDataSource;
@@ -15,21 +15,53 @@
 package com.kuassivi.october.repository.datasource;
 
 import com.kuassivi.annotation.RepositoryProxyCache;
+import com.kuassivi.october.repository.cache.CacheKey;
+import com.kuassivi.october.repository.cache.MemoryCache;
+import com.kuassivi.october.repository.policy.CallPolicy;
+import com.kuassivi.october.service.adapter.interceptor.ConditionalRequestInterceptor;
+import com.kuassivi.october.service.exception.NotModifiedException;
 
 import android.support.annotation.Nullable;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 import rx.Observable;
+import rx.functions.Func1;
 
 /**
  * Default DataSource Strategy Contract.
  */
 public abstract class DataSourceStrategy {
 
+    /**
+     * Repository calls in flight through this DataSource Strategy.
+     */
+    private final InFlightRequests inFlightRequests = new InFlightRequests();
+
     /**
      * The current Cache instance attached from your Repository implementation.
      */
     private RepositoryProxyCache cache;
 
+    /**
+     * The in-memory cache attached from the DataSource Factory, if any.
+     */
+    private MemoryCache<CacheKey, Object> memoryCache;
+
+    /**
+     * The key of the current Repository call in the in-memory cache.
+     */
+    private CacheKey cacheKey;
+
+    /**
+     * Entities passed to {@link #persistCache(Object)} that have not been emitted yet by their
+     * delegated Observable, so they can be stored in the in-memory cache under its own key.
+     */
+    private final PendingEntities memoizable = new PendingEntities();
+
     /**
      * Attaches the current proxy cache.
      *
@@ -39,11 +71,102 @@ public abstract class DataSourceStrategy {
         this.cache = cache;
     }
 
+    /**
+     * Attaches the in-memory cache and the key of the current Repository call.
+     *
+     * @param memoryCache The in-memory cache, or null to detach it
+     * @param cacheKey    The key of the current Repository call
+     */
+    final void attachMemoryCache(MemoryCache<CacheKey, Object> memoryCache, CacheKey cacheKey) {
+        this.memoryCache = memoryCache;
+        this.cacheKey = cacheKey;
+    }
+
     /**
      * Delegates the {@link Observable} to perform specific strategies.
+     * <p>
+     * If an in-memory cache is attached and it holds an entity for the current Repository call,
+     * the entity is emitted straight away without subscribing to the original {@link
+     * Observable}.
+     * <p>
+     * If the Service was created with a {@link CacheKey}, concurrent subscriptions for the same
+     * key through this DataSource are coalesced into a single one, unless {@link
+     * #isCoalescable()} says otherwise.
+     * <p>
+     * The {@link CallPolicy} of the DataSource wraps the whole process of the original {@link
+     * Observable}, so every retried or hedged subscription performs it again on its own Thread.
      */
     final public <T> Observable<T> delegate(Observable<T> observable) {
-        return compose(observable);
+        return delegate(null, observable);
+    }
+
+    /**
+     * Delegates the {@link Observable} to perform specific strategies, coalescing concurrent
+     * subscriptions for the given key through this DataSource into a single one.
+     *
+     * @param key        The key of the Repository call, or null to use the key attached when the
+     *                   Service was created
+     * @param observable The original Observable
+     * @see InFlightRequests
+     */
+    final public <T> Observable<T> delegate(@Nullable CacheKey key, Observable<T> observable) {
+        final MemoryCache<CacheKey, Object> memoryCache = this.memoryCache;
+        final CacheKey cacheKey = this.cacheKey;
+        CacheKey requestKey = key != null
+                              ? key
+                              : cacheKey;
+        final CallPolicy policy = getCallPolicy();
+        final String endpoint = requestKey != null
+                                ? requestKey.getName()
+                                : getClass().getName();
+        Observable<T> request;
+        if (memoryCache == null || cacheKey == null) {
+            request = policy.apply(endpoint, compose(observable));
+        } else {
+            // the key is captured now, the attached one might belong to another call by the time
+            // the entity is emitted
+            final Observable<T> memoized = policy.apply(endpoint, compose(
+                    observable.doOnNext(entity -> {
+                        if (entity != null && memoizable.remove(entity)) {
+                            memoryCache.put(cacheKey, entity);
+                        }
+                    })));
+            request = Observable.defer(() -> {
+                //noinspection unchecked
+                T entity = (T) memoryCache.get(cacheKey);
+                return entity != null
+                       ? Observable.just(entity)
+                       : memoized;
+            });
+        }
+        return requestKey != null && isCoalescable()
+               ? inFlightRequests.coalesce(requestKey, request)
+               : request;
+    }
+
+    /**
+     * Whether the concurrent calls with the same key can share a single subscription.
+     * <p>
+     * The items of a shared subscription are replayed to subscribers on other Threads, so it must
+     * be disabled when they are confined to the Thread they were read on.
+     */
+    boolean isCoalescable() {
+        return true;
+    }
+
+    /**
+     * Returns the {@link CallPolicy} applied to every Observable delegated by this DataSource,
+     * i.e. to retry, hedge or stop calling the failing endpoints.
+     * <p>
+     * The endpoint of every call is the name of its {@link CacheKey}, or the DataSource class
+     * name when there is no key. Retried and hedged calls are subscribed on the Scheduler of the
+     * policy, and every subscription goes through {@link #compose(Observable)} again, so it
+     * acquires the Thread confined resources of its own Thread, i.e. its {@code Realm} instance.
+     * <p>
+     * Policies keep their state, so return the same instance on every call. None by default.
+     */
+    protected CallPolicy getCallPolicy() {
+        return CallPolicy.NONE;
     }
 
     /**
@@ -54,13 +177,95 @@ public abstract class DataSourceStrategy {
         return observable;
     }
 
+    /**
+     * Helper method to stream a large result set in pages, instead of loading the whole result set
+     * in memory at once.
+     * <p>
+     * Pages are loaded one after another, and as long as the page Observables honor backpressure,
+     * as Retrofit ones do, the next page is not loaded until the downstream requests it. The
+     * stream completes as soon as a page is null or empty.
+     * <p>
+     * <b>Usage:</b>
+     * <pre>
+     * <code>public Observable&lt;List&lt;ProductEntity&gt;&gt; getCatalog() {
+     *   return delegate(paginate(page -&gt; service.getCatalog(page, PAGE_SIZE)));
+     * }
+     * </code>
+     * </pre>
+     *
+     * @param pageLoader Loads the page of the given index, starting from 0
+     * @param <T>        Type of the items of each page
+     * @return An Observable that emits every page as a chunk
+     */
+    final public <T> Observable<List<T>> paginate(Func1<Integer, Observable<List<T>>> pageLoader) {
+        return Observable.range(0, Integer.MAX_VALUE)
+                         .concatMap(pageLoader)
+                         .takeWhile(page -> page != null && !page.isEmpty());
+    }
+
+    /**
+     * Helper method to skip the processing of a Cloud response that has not changed.
+     * <p>
+     * When the request fails with a {@link NotModifiedException}, thrown by the {@link
+     * ConditionalRequestInterceptor}, the data persisted the last time is still valid. Then the
+     * current {@link RepositoryProxyCache} is persisted again, so the data is not considered
+     * expired, and the given Observable is performed instead. No response is parsed nor persisted.
+     * <p>
+     * The validators of the retrieved resource are only remembered once the request completes, so
+     * the request must persist the response and perform the HTTP call on the subscribing Thread,
+     * as the Retrofit services do.
+     * <p>
+     * <b>Usage:</b>
+     * <pre>
+     * <code>public Observable&lt;List&lt;ItemEntity&gt;&gt; getItems() {
+     *   return delegate(ifModified(service.getItems().map(this::persist),
+     *                              localDataSource.getItems()));
+     * }
+     * </code>
+     * </pre>
+     *
+     * @param request     The request Observable, that parses and persists the response
+     * @param notModified The Observable performed when the response has not changed, usually
+     *                    the one that reads the persisted data
+     * @return The request Observable that falls back when the response has not changed
+     */
+    final public <T> Observable<T> ifModified(Observable<T> request,
+                                              Observable<T> notModified) {
+        final RepositoryProxyCache cache = this.cache;
+        Observable<T> conditional = Observable.create(subscriber -> {
+            ConditionalRequestInterceptor.Scope scope = ConditionalRequestInterceptor.openScope();
+            try {
+                request.doOnCompleted(scope::commit).unsafeSubscribe(subscriber);
+            } finally {
+                scope.close();
+            }
+        });
+        return conditional.onErrorResumeNext(throwable -> {
+            if (!(throwable instanceof NotModifiedException)) {
+                return Observable.error(throwable);
+            }
+            if (cache != null) {
+                cache.persist();
+            }
+            return notModified;
+        });
+    }
+
     /**
      * Helper method to persist the current cache as is.
+     * <p>
+     * It also fills the in-memory cache with the given entity if it is attached, so you should
+     * pass entities that can be safely shared among threads, i.e. not managed by a database. The
+     * entity is stored once the delegated Observable emits it, under the key of that Repository
+     * call, so it must be emitted as returned by this method.
      */
     final public <T> T persistCache(T entity) {
         if (this.cache != null && !this.cache.isCached()) {
             this.cache.persist();
         }
+        if (entity != null && this.memoryCache != null && this.cacheKey != null) {
+            memoizable.add(entity);
+        }
         return entity;
     }
 
@@ -71,4 +276,47 @@ public abstract class DataSourceStrategy {
     final public RepositoryProxyCache getCache() {
         return cache;
     }
+
+    /**
+     * Weakly held entities, compared by identity so neither their equals nor their hashCode is
+     * ever called, and two equal entities of different calls are not mistaken for each other.
+     * <p>
+     * There are only a few pending entities at a time, the ones whose calls are in flight.
+     */
+    private static class PendingEntities {
+
+        private final List<WeakReference<Object>> entities = new ArrayList<>();
+
+        synchronized void add(Object entity) {
+            purge(null);
+            entities.add(new WeakReference<>(entity));
+        }
+
+        /**
+         * Removes the given entity.
+         *
+         * @return Whether it was pending
+         */
+        synchronized boolean remove(Object entity) {
+            return purge(entity);
+        }
+
+        /**
+         * Removes the collected entities and the given one, if any.
+         */
+        private boolean purge(Object entity) {
+            boolean isRemoved = false;
+            Iterator<WeakReference<Object>> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                Object pending = iterator.next().get();
+                if (pending == null) {
+                    iterator.remove();
+                } else if (!isRemoved && entity != null && pending == entity) {
+                    iterator.remove();
+                    isRemoved = true;
+                }
+            }
+            return isRemoved;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package com.kuassivi.october.repository.datasource;
+
+import com.kuassivi.october.repository.cache.CacheKey;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import rx.Observable;
+
+/**
+ * Coalesces identical Repository calls that are in flight at the same time.
+ * <p>
+ * The first subscription for a given {@link CacheKey} subscribes to the upstream {@link
+ * Observable}, and any other subscription for the same key, while the first one has not
+ * terminated, shares the same upstream through a reference counted replay. So a single HTTP call
+ * and a single database transaction are performed.
+ * <p>
+ * The request is released as soon as the upstream terminates or every subscriber unsubscribes.
+ */
+public final class InFlightRequests {
+
+    private final ConcurrentHashMap<CacheKey, Observable<?>> requests = new ConcurrentHashMap<>();
+
+    /**
+     * Returns an {@link Observable} that shares the in-flight request for the given key, or starts
+     * a new one from the given {@link Observable} when subscribed.
+     *
+     * @param key        The key that identifies the Repository call
+     * @param observable The upstream Observable
+     * @param <T>        Type of the emitted items
+     * @return The coalesced Observable
+     */
+    public <T> Observable<T> coalesce(final CacheKey key, final Observable<T> observable) {
+        return Observable.defer(() -> {
+            //noinspection unchecked
+            Observable<T> inFlight = (Observable<T>) requests.get(key);
+            if (inFlight != null) {
+                return inFlight;
+            }
+            Request<T> request = new Request<>();
+            request.shared = observable
+                    .doOnTerminate(() -> requests.remove(key, request.shared))
+                    .doOnUnsubscribe(() -> requests.remove(key, request.shared))
+                    .replay()
+                    .refCount();
+            //noinspection unchecked
+            inFlight = (Observable<T>) requests.putIfAbsent(key, request.shared);
+            return inFlight != null
+                   ? inFlight
+                   : request.shared;
+        });
+    }
+
+    /**
+     * Returns the number of requests that are currently in flight.
+     */
+    public int size() {
+        return requests.size();
+    }
+
+    /**
+     * Holds the shared Observable so it can be released by itself.
+     */
+    private static class Request<T> {
+
+        Observable<T> shared;
+    }
+}
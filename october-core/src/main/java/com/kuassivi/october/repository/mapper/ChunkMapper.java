@@ -0,0 +1,52 @@
+package com.kuassivi.october.repository.mapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * Maps a stream of chunks incrementally through an {@link OctoberDataMapper}, so only one chunk
+ * is held in memory at a time.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ * <code>dataSource.getCatalog()
+ *     .compose(ChunkMapper.of(productMapper));
+ * </code>
+ * </pre>
+ *
+ * @param <T> Type of the items to be mapped
+ * @param <R> Type of the mapped items
+ */
+public final class ChunkMapper<T, R> implements Observable.Transformer<List<T>, List<R>> {
+
+    private final OctoberDataMapper<T, R> mapper;
+
+    private ChunkMapper(OctoberDataMapper<T, R> mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Creates a Transformer that maps every chunk through the given mapper.
+     *
+     * @param mapper The mapper of each chunk
+     * @param <T>    Type of the items to be mapped
+     * @param <R>    Type of the mapped items
+     * @return The chunk Transformer
+     */
+    public static <T, R> ChunkMapper<T, R> of(OctoberDataMapper<T, R> mapper) {
+        return new ChunkMapper<>(mapper);
+    }
+
+    @Override
+    public Observable<List<R>> call(Observable<List<T>> chunks) {
+        return chunks.map(chunk -> {
+            Collection<R> mapped = mapper.transform(chunk);
+            return mapped instanceof List
+                   ? (List<R>) mapped
+                   : new ArrayList<>(mapped);
+        });
+    }
+}
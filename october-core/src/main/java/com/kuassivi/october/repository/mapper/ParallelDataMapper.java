@@ -0,0 +1,142 @@
+package com.kuassivi.october.repository.mapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * Base Data Mapper that maps large collections in parallel.
+ * <p>
+ * You only need to implement {@link #transform(Object)}. Collections under the threshold are
+ * mapped with a plain loop, and larger ones are split into chunks that are mapped on the given
+ * {@link Scheduler}, by default {@link Schedulers#computation()}, while the calling thread also
+ * maps chunks itself. The order of the items is preserved.
+ * <p>
+ * <b>Note:</b> {@link #transform(Object)} must be thread safe.
+ *
+ * @param <T> Type of the items to be mapped
+ * @param <R> Type of the mapped items
+ */
+public abstract class ParallelDataMapper<T, R> implements OctoberDataMapper<T, R> {
+
+    public static final int DEFAULT_THRESHOLD  = 2048;
+    public static final int DEFAULT_CHUNK_SIZE = 512;
+
+    private final Scheduler scheduler;
+    private final int       threshold;
+    private final int       chunkSize;
+
+    protected ParallelDataMapper() {
+        this(Schedulers.computation(), DEFAULT_THRESHOLD, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param scheduler Scheduler where the chunks are mapped
+     * @param threshold Min size of a Collection to be mapped in parallel
+     * @param chunkSize Number of items of each chunk
+     */
+    protected ParallelDataMapper(Scheduler scheduler, int threshold, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize <= 0");
+        }
+        this.scheduler = scheduler;
+        this.threshold = threshold;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<R> transform(Collection<T> dataCollection) {
+        if (dataCollection == null || dataCollection.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        int size = dataCollection.size();
+        if (size < threshold || size <= chunkSize) {
+            List<R> result = new ArrayList<>(size);
+            for (T data : dataCollection) {
+                result.add(transform(data));
+            }
+            return result;
+        }
+        return transformInChunks(dataCollection);
+    }
+
+    /**
+     * Maps the Collection in chunks, on the Scheduler and on the calling thread.
+     * <p>
+     * Chunks are claimed one by one, so the calling thread only waits for chunks that are being
+     * mapped, never for workers that are still queued on a busy Scheduler.
+     */
+    private List<R> transformInChunks(Collection<T> dataCollection) {
+        final List<T> source = dataCollection instanceof List
+                               && dataCollection instanceof RandomAccess
+                               ? (List<T>) dataCollection
+                               : new ArrayList<>(dataCollection);
+        final int size = source.size();
+        final int chunks = (size + chunkSize - 1) / chunkSize;
+        final Object[] results = new Object[size];
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch mappedChunks = new CountDownLatch(chunks);
+
+        final Runnable mapChunks = () -> {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                try {
+                    int end = Math.min(size, (chunk + 1) * chunkSize);
+                    for (int i = chunk * chunkSize; i < end && error.get() == null; i++) {
+                        results[i] = transform(source.get(i));
+                    }
+                } catch (Throwable e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    mappedChunks.countDown();
+                }
+            }
+        };
+
+        int helpers = Math.min(chunks, Runtime.getRuntime().availableProcessors()) - 1;
+        for (int i = 0; i < helpers; i++) {
+            final Scheduler.Worker worker = scheduler.createWorker();
+            worker.schedule(() -> {
+                try {
+                    mapChunks.run();
+                } finally {
+                    worker.unsubscribe();
+                }
+            });
+        }
+        mapChunks.run();
+
+        try {
+            mappedChunks.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while mapping a Collection in parallel", e);
+        }
+
+        Throwable throwable = error.get();
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        } else if (throwable != null) {
+            throw new RuntimeException(throwable);
+        }
+
+        List<R> result = new ArrayList<>(size);
+        //noinspection unchecked
+        Collections.addAll(result, (R[]) results);
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package com.kuassivi.october.repository.policy;
+
+import com.kuassivi.october.repository.datasource.DataSourceStrategy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * Declarative policy applied to every call of a DataSource, like retrying or hedging it.
+ * <p>
+ * Every call belongs to an endpoint, the name of the Repository call, so the policies can keep a
+ * state per endpoint.
+ * <p>
+ * <b>Usage:</b> Override {@link DataSourceStrategy#getCallPolicy()} on your Cloud DataSource:
+ * <pre>
+ * <code>private static final CallPolicy POLICY = CallPolicy.chain(new RetryPolicy(),
+ *                                                           new CircuitBreakerPolicy(),
+ *                                                           new HedgingPolicy());
+ *
+ * protected CallPolicy getCallPolicy() {
+ *   return POLICY;
+ * }
+ * </code>
+ * </pre>
+ * Policies keep their state across calls, so share the same instances among every DataSource
+ * instance.
+ */
+public abstract class CallPolicy {
+
+    /**
+     * Policy that leaves the calls as they are.
+     */
+    public static final CallPolicy NONE = new CallPolicy() {
+        @Override
+        public <T> Observable<T> apply(String endpoint, Observable<T> call) {
+            return call;
+        }
+    };
+
+    /**
+     * Applies the policy to a call.
+     *
+     * @param endpoint The endpoint of the call
+     * @param call     The Observable that performs the call on every subscription
+     * @param <T>      Type of the emitted items
+     * @return The Observable that performs the call following the policy
+     */
+    public abstract <T> Observable<T> apply(String endpoint, Observable<T> call);
+
+    /**
+     * Chains several policies, the first one wraps the second one and so on.
+     * <p>
+     * A {@link RetryPolicy} should go first, so every retry goes through the rest of policies.
+     *
+     * @param policies The policies, from the outermost to the innermost
+     * @return A policy that applies every given policy
+     */
+    public static CallPolicy chain(CallPolicy... policies) {
+        final List<CallPolicy> chain = Arrays.asList(policies.clone());
+        return new CallPolicy() {
+            @Override
+            public <T> Observable<T> apply(String endpoint, Observable<T> call) {
+                for (int i = chain.size() - 1; i >= 0; i--) {
+                    call = chain.get(i).apply(endpoint, call);
+                }
+                return call;
+            }
+        };
+    }
+}
@@ -0,0 +1,301 @@
+package com.kuassivi.october.repository.policy;
+
+import com.kuassivi.october.exception.CircuitOpenException;
+import com.kuassivi.october.service.exception.NotModifiedException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+import rx.subjects.Subject;
+
+/**
+ * Stops calling an endpoint that keeps failing, so a degraded backend is given time to recover.
+ * <p>
+ * Every endpoint has its own circuit. After {@code failureThreshold} consecutive failures the
+ * circuit opens, and the calls fail straight away with a {@link CircuitOpenException} during
+ * {@code openMillis}. Then a single call is let through: the circuit closes if it succeeds, or
+ * opens again if it fails.
+ * <p>
+ * Every error but the {@link NotModifiedException} counts as a failure by default. Override
+ * {@link #isFailure(Throwable)} to change it.
+ * <p>
+ * The state of every circuit can be read with {@link #getState(String)}, and its transitions are
+ * published through {@link #observeTransitions()}.
+ * <p>
+ * The open circuits are timed with the clock of the given {@link Scheduler}, {@link
+ * Schedulers#computation()} by default.
+ */
+public class CircuitBreakerPolicy extends CallPolicy {
+
+    public static final int  DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MILLIS       = 30000;
+
+    /**
+     * State of the circuit of an endpoint.
+     */
+    public enum State {
+        /**
+         * The calls are performed.
+         */
+        CLOSED,
+        /**
+         * The calls are rejected.
+         */
+        OPEN,
+        /**
+         * A single call is being performed to check if the endpoint has recovered.
+         */
+        HALF_OPEN
+    }
+
+    private final int                                failureThreshold;
+    private final long                               openMillis;
+    private final Scheduler                          scheduler;
+    private final ConcurrentHashMap<String, Circuit> circuits    = new ConcurrentHashMap<>();
+    private final Subject<Transition, Transition>    transitions =
+            PublishSubject.<Transition>create().toSerialized();
+
+    public CircuitBreakerPolicy() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS);
+    }
+
+    /**
+     * @param failureThreshold Number of consecutive failures that open the circuit
+     * @param openMillis       Time the circuit stays open before letting a call through
+     */
+    public CircuitBreakerPolicy(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, Schedulers.computation());
+    }
+
+    /**
+     * @param failureThreshold Number of consecutive failures that open the circuit
+     * @param openMillis       Time the circuit stays open before letting a call through
+     * @param scheduler        Scheduler whose clock times the open circuits
+     */
+    public CircuitBreakerPolicy(int failureThreshold, long openMillis, Scheduler scheduler) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold <= 0");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public <T> Observable<T> apply(final String endpoint, final Observable<T> call) {
+        return Observable.defer(() -> {
+            final Circuit circuit = getCircuit(endpoint);
+            final State acquired = circuit.tryAcquire();
+            if (acquired == null) {
+                return Observable.<T>error(new CircuitOpenException(endpoint));
+            }
+            final AtomicBoolean isDone = new AtomicBoolean();
+            return call.doOnCompleted(() -> {
+                if (isDone.compareAndSet(false, true)) {
+                    circuit.onSuccess(acquired);
+                }
+            }).doOnError(error -> {
+                if (isDone.compareAndSet(false, true)) {
+                    if (isFailure(error)) {
+                        circuit.onFailure(acquired);
+                    } else {
+                        circuit.onSuccess(acquired);
+                    }
+                }
+            }).doOnUnsubscribe(() -> {
+                if (isDone.compareAndSet(false, true)) {
+                    circuit.onCancel(acquired);
+                }
+            });
+        });
+    }
+
+    /**
+     * Returns whether the error of a call counts as a failure of its endpoint.
+     */
+    protected boolean isFailure(Throwable error) {
+        return !(error instanceof NotModifiedException);
+    }
+
+    /**
+     * Returns the state of the circuit of the given endpoint.
+     */
+    public State getState(String endpoint) {
+        Circuit circuit = circuits.get(endpoint);
+        return circuit != null
+               ? circuit.getState()
+               : State.CLOSED;
+    }
+
+    /**
+     * Returns a snapshot of the state of every endpoint called so far.
+     */
+    public Map<String, State> getStates() {
+        Map<String, State> states = new HashMap<>();
+        for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+            states.put(entry.getKey(), entry.getValue().getState());
+        }
+        return states;
+    }
+
+    /**
+     * Returns an Observable that emits every transition of the circuits from now on.
+     * <p>
+     * The transitions are emitted on the Thread of the call that caused them.
+     */
+    public Observable<Transition> observeTransitions() {
+        return transitions.asObservable();
+    }
+
+    private Circuit getCircuit(String endpoint) {
+        Circuit circuit = circuits.get(endpoint);
+        if (circuit == null) {
+            Circuit created = new Circuit(endpoint);
+            circuit = circuits.putIfAbsent(endpoint, created);
+            if (circuit == null) {
+                circuit = created;
+            }
+        }
+        return circuit;
+    }
+
+    private void publish(String endpoint, State from, State to) {
+        if (from != to && transitions.hasObservers()) {
+            transitions.onNext(new Transition(endpoint, from, to));
+        }
+    }
+
+    /**
+     * Transition of the circuit of an endpoint.
+     */
+    public static final class Transition {
+
+        private final String endpoint;
+        private final State  from;
+        private final State  to;
+
+        Transition(String endpoint, State from, State to) {
+            this.endpoint = endpoint;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public State getFrom() {
+            return from;
+        }
+
+        public State getTo() {
+            return to;
+        }
+
+        @Override
+        public String toString() {
+            return endpoint + ": " + from + " -> " + to;
+        }
+    }
+
+    /**
+     * Circuit of an endpoint.
+     * <p>
+     * Every call remembers the state it was let through in, so only the call let through by a
+     * half-open circuit decides whether it closes. The calls still in flight when the circuit
+     * opened cannot close it when they succeed late, nor open it again when they fail.
+     * <p>
+     * The transitions are published outside the lock.
+     */
+    private class Circuit {
+
+        private final String endpoint;
+
+        private State state = State.CLOSED;
+        private int   failures;
+        private long  openedAt;
+
+        Circuit(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+
+        /**
+         * Returns the state a call is let through in, {@link State#CLOSED} or {@link
+         * State#HALF_OPEN}, or null if it cannot be performed.
+         */
+        State tryAcquire() {
+            synchronized (this) {
+                if (state == State.CLOSED) {
+                    return State.CLOSED;
+                }
+                if (state == State.HALF_OPEN) {
+                    return null;
+                }
+                long openFor = scheduler.now() - openedAt;
+                // the clock might go backwards
+                if (openFor >= 0 && openFor < openMillis) {
+                    return null;
+                }
+                state = State.HALF_OPEN;
+            }
+            publish(endpoint, State.OPEN, State.HALF_OPEN);
+            return State.HALF_OPEN;
+        }
+
+        void onSuccess(State acquired) {
+            synchronized (this) {
+                if (state != acquired) {
+                    return;
+                }
+                failures = 0;
+                if (state == State.CLOSED) {
+                    return;
+                }
+                state = State.CLOSED;
+            }
+            publish(endpoint, State.HALF_OPEN, State.CLOSED);
+        }
+
+        void onFailure(State acquired) {
+            State from;
+            synchronized (this) {
+                if (state != acquired) {
+                    return;
+                }
+                from = state;
+                if (state == State.CLOSED && ++failures < failureThreshold) {
+                    return;
+                }
+                state = State.OPEN;
+                openedAt = scheduler.now();
+            }
+            publish(endpoint, from, State.OPEN);
+        }
+
+        /**
+         * Releases the call let through by a half-open circuit that was unsubscribed before it
+         * terminated, so another call can check the endpoint.
+         */
+        void onCancel(State acquired) {
+            synchronized (this) {
+                if (acquired != State.HALF_OPEN || state != State.HALF_OPEN) {
+                    return;
+                }
+                state = State.OPEN;
+                // lets the next call through straight away
+                openedAt = scheduler.now() - openMillis;
+            }
+            publish(endpoint, State.HALF_OPEN, State.OPEN);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.kuassivi.october.repository.policy;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * Fires a second, hedged, call when the first one is slower than usual, and keeps the first one
+ * that responds.
+ * <p>
+ * The latency of the last calls of every endpoint is recorded, and once there are enough
+ * samples, a call that has not responded after the given percentile of the latency, p95 by
+ * default, is hedged. The slowest calls are usually the ones hitting a degraded backend node, so
+ * the hedged call is likely to respond first. The other call is unsubscribed.
+ * <p>
+ * The latency of a call is measured from the start of the first call until any of them responds,
+ * so the hedged calls do not lower the percentile they are fired after.
+ * <p>
+ * Every endpoint has a budget of hedged calls, 10% of its calls by default, so a degraded
+ * backend is not hit with twice the load. Every call earns a fraction of a hedged call, and a
+ * few of them can be saved for a burst of slow calls. A slow call is not hedged when the budget
+ * is spent.
+ * <p>
+ * Only hedge idempotent calls, as both of them might reach the backend.
+ * <p>
+ * The hedged calls are subscribed on the given {@link Scheduler}, {@link Schedulers#io()} by
+ * default, whose clock also measures the latency.
+ */
+public class HedgingPolicy extends CallPolicy {
+
+    public static final double DEFAULT_PERCENTILE  = 0.95;
+    public static final int    DEFAULT_MIN_SAMPLES = 20;
+    public static final double DEFAULT_HEDGE_RATIO = 0.1;
+
+    /**
+     * Number of latency samples kept per endpoint.
+     */
+    private static final int WINDOW_SIZE = 128;
+
+    /**
+     * Max number of hedged calls an endpoint can save for a burst of slow calls.
+     */
+    private static final int MAX_SAVED_HEDGES = 10;
+
+    /**
+     * Cost of a hedged call in the budget, which is counted in integers to avoid rounding errors.
+     */
+    private static final long HEDGE_COST = 1000000;
+
+    private final double                                   percentile;
+    private final int                                      minSamples;
+    private final long                                     hedgeEarning;
+    private final Scheduler                                scheduler;
+    private final ConcurrentHashMap<String, LatencyWindow> latencies   =
+            new ConcurrentHashMap<>();
+    private final AtomicLong                               hedgedCount = new AtomicLong();
+    private final AtomicLong                               skipCount   = new AtomicLong();
+
+    public HedgingPolicy() {
+        this(DEFAULT_PERCENTILE, DEFAULT_MIN_SAMPLES);
+    }
+
+    /**
+     * @param percentile Percentile of the latency after which a call is hedged, from 0 to 1
+     * @param minSamples Number of samples an endpoint needs before its calls are hedged
+     */
+    public HedgingPolicy(double percentile, int minSamples) {
+        this(percentile, minSamples, Schedulers.io());
+    }
+
+    /**
+     * @param percentile Percentile of the latency after which a call is hedged, from 0 to 1
+     * @param minSamples Number of samples an endpoint needs before its calls are hedged
+     * @param scheduler  Scheduler that waits the hedging delay and subscribes the hedged call
+     */
+    public HedgingPolicy(double percentile, int minSamples, Scheduler scheduler) {
+        this(percentile, minSamples, DEFAULT_HEDGE_RATIO, scheduler);
+    }
+
+    /**
+     * @param percentile Percentile of the latency after which a call is hedged, from 0 to 1
+     * @param minSamples Number of samples an endpoint needs before its calls are hedged
+     * @param hedgeRatio Max ratio of the calls of an endpoint that are hedged, from 0 to 1
+     * @param scheduler  Scheduler that waits the hedging delay and subscribes the hedged call
+     */
+    public HedgingPolicy(double percentile, int minSamples, double hedgeRatio,
+                         Scheduler scheduler) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("percentile <= 0 || percentile >= 1");
+        }
+        if (minSamples <= 0 || minSamples > WINDOW_SIZE) {
+            throw new IllegalArgumentException("minSamples <= 0 || minSamples > " + WINDOW_SIZE);
+        }
+        if (hedgeRatio <= 0 || hedgeRatio > 1) {
+            throw new IllegalArgumentException("hedgeRatio <= 0 || hedgeRatio > 1");
+        }
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.hedgeEarning = Math.round(hedgeRatio * HEDGE_COST);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public <T> Observable<T> apply(final String endpoint, final Observable<T> call) {
+        return Observable.defer(() -> {
+            final LatencyWindow window = getWindow(endpoint);
+            window.earnHedge(hedgeEarning);
+            final long delayMillis = window.getPercentileMillis(percentile, minSamples);
+            Observable<T> hedgedCall = call;
+            if (delayMillis >= 0) {
+                Observable<T> hedged = Observable.timer(delayMillis, TimeUnit.MILLISECONDS,
+                                                        scheduler)
+                                                 .flatMap(tick -> {
+                                                     if (!window.spendHedge()) {
+                                                         skipCount.incrementAndGet();
+                                                         return Observable.<T>never();
+                                                     }
+                                                     hedgedCount.incrementAndGet();
+                                                     return call;
+                                                 });
+                hedgedCall = Observable.amb(call, hedged);
+            }
+            return timed(window, hedgedCall);
+        });
+    }
+
+    /**
+     * Records the time the call takes to emit its first item or to complete, from its
+     * subscription.
+     */
+    private <T> Observable<T> timed(final LatencyWindow window, final Observable<T> call) {
+        final long start = scheduler.now();
+        final AtomicBoolean isRecorded = new AtomicBoolean();
+        return call.doOnEach(notification -> {
+            if (!notification.isOnError() && isRecorded.compareAndSet(false, true)) {
+                // the clock might go backwards
+                window.record(Math.max(0, scheduler.now() - start));
+            }
+        });
+    }
+
+    private LatencyWindow getWindow(String endpoint) {
+        LatencyWindow window = latencies.get(endpoint);
+        if (window == null) {
+            LatencyWindow created = new LatencyWindow();
+            window = latencies.putIfAbsent(endpoint, created);
+            if (window == null) {
+                window = created;
+            }
+        }
+        return window;
+    }
+
+    /**
+     * Returns the number of hedged calls fired.
+     */
+    public long getHedgedCount() {
+        return hedgedCount.get();
+    }
+
+    /**
+     * Returns the number of slow calls that were not hedged because the budget of their endpoint
+     * was spent.
+     */
+    public long getSkipCount() {
+        return skipCount.get();
+    }
+
+    /**
+     * Returns the time, in milliseconds, after which a call to the given endpoint is hedged, or -1
+     * if there are not enough samples yet.
+     */
+    public long getHedgingDelayMillis(String endpoint) {
+        LatencyWindow window = latencies.get(endpoint);
+        return window != null
+               ? window.getPercentileMillis(percentile, minSamples)
+               : -1;
+    }
+
+    /**
+     * Latency of the last calls of an endpoint, and its budget of hedged calls.
+     * <p>
+     * The percentile is only computed again after a new sample has been recorded.
+     */
+    private static class LatencyWindow {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+
+        private int     count;
+        private int     next;
+        private boolean isDirty;
+        private long    percentileMillis;
+        private double  cachedPercentile;
+        private long    savedHedges;
+
+        synchronized void earnHedge(long earning) {
+            savedHedges = Math.min(savedHedges + earning, MAX_SAVED_HEDGES * HEDGE_COST);
+        }
+
+        /**
+         * Returns whether a call can be hedged, and spends it from the budget.
+         */
+        synchronized boolean spendHedge() {
+            if (savedHedges < HEDGE_COST) {
+                return false;
+            }
+            savedHedges -= HEDGE_COST;
+            return true;
+        }
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % WINDOW_SIZE;
+            if (count < WINDOW_SIZE) {
+                count++;
+            }
+            isDirty = true;
+        }
+
+        synchronized long getPercentileMillis(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            if (isDirty || cachedPercentile != percentile) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                percentileMillis = sorted[(int) Math.ceil(percentile * count) - 1];
+                cachedPercentile = percentile;
+                isDirty = false;
+            }
+            return percentileMillis;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.kuassivi.october.repository.policy;
+
+import com.kuassivi.october.exception.CircuitOpenException;
+import com.kuassivi.october.service.exception.NotModifiedException;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * Retries the failed calls with an exponential backoff and full jitter.
+ * <p>
+ * The delay before the n-th retry is a random time between 0 and {@code baseDelay * 2^n}, capped
+ * at {@code maxDelay}. The randomness spreads the retries of many clients that failed at the
+ * same time, so they do not hit a degraded backend all at once.
+ * <p>
+ * Only {@link IOException}s are retried by default, except the {@link NotModifiedException} and
+ * the {@link CircuitOpenException}. Override {@link #isRetryable(Throwable)} to change it.
+ * <p>
+ * The retries are subscribed on the given {@link Scheduler}, {@link Schedulers#computation()} by
+ * default.
+ */
+public class RetryPolicy extends CallPolicy {
+
+    public static final int  DEFAULT_MAX_RETRIES       = 3;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 500;
+    public static final long DEFAULT_MAX_DELAY_MILLIS  = 30000;
+
+    private static final Random RANDOM = new Random();
+
+    private final int        maxRetries;
+    private final long       baseDelayMillis;
+    private final long       maxDelayMillis;
+    private final Scheduler  scheduler;
+    private final AtomicLong retryCount  = new AtomicLong();
+    private final AtomicLong giveUpCount  = new AtomicLong();
+
+    public RetryPolicy() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * @param maxRetries      Max number of retries of a call
+     * @param baseDelayMillis Max delay before the first retry
+     * @param maxDelayMillis  Max delay before any retry
+     */
+    public RetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis) {
+        this(maxRetries, baseDelayMillis, maxDelayMillis, Schedulers.computation());
+    }
+
+    /**
+     * @param maxRetries      Max number of retries of a call
+     * @param baseDelayMillis Max delay before the first retry
+     * @param maxDelayMillis  Max delay before any retry
+     * @param scheduler       Scheduler that waits the delays
+     */
+    public RetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis,
+                       Scheduler scheduler) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries < 0");
+        }
+        if (baseDelayMillis <= 0 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException("baseDelayMillis <= 0 || maxDelayMillis < "
+                                               + "baseDelayMillis");
+        }
+        this.maxRetries = maxRetries;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public <T> Observable<T> apply(String endpoint, final Observable<T> call) {
+        return Observable.defer(() -> {
+            final int[] attempt = new int[1];
+            return call.retryWhen(errors -> errors.flatMap(error -> {
+                if (attempt[0] >= maxRetries || !isRetryable(error)) {
+                    if (attempt[0] > 0) {
+                        giveUpCount.incrementAndGet();
+                    }
+                    return Observable.<Long>error(error);
+                }
+                retryCount.incrementAndGet();
+                return Observable.timer(getDelayMillis(attempt[0]++),
+                                        TimeUnit.MILLISECONDS,
+                                        scheduler);
+            }));
+        });
+    }
+
+    /**
+     * Returns whether the error of a call can be retried.
+     */
+    protected boolean isRetryable(Throwable error) {
+        return error instanceof IOException
+               && !(error instanceof NotModifiedException)
+               && !(error instanceof CircuitOpenException);
+    }
+
+    /**
+     * Returns the random delay before the given retry.
+     *
+     * @param retry The index of the retry, starting from 0
+     */
+    long getDelayMillis(int retry) {
+        // avoids overflowing the shift, the ceiling is capped anyway
+        int shift = Math.min(retry, Long.numberOfLeadingZeros(baseDelayMillis) - 1);
+        long ceiling = Math.min(baseDelayMillis << shift, maxDelayMillis);
+        return (long) (RANDOM.nextDouble() * ceiling);
+    }
+
+    /**
+     * Returns the number of retries performed.
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Returns the number of calls that failed after being retried.
+     */
+    public long getGiveUpCount() {
+        return giveUpCount.get();
+    }
+}
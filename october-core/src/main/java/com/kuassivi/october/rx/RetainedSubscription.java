@@ -0,0 +1,154 @@
+package com.kuassivi.october.rx;
+
+import rx.Notification;
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+
+/**
+ * Subscription that outlives the View that receives its values.
+ * <p>
+ * The source Observable is subscribed only once and keeps running while the target subscriber
+ * is detached, for instance while an Activity is recreated after a configuration change. The
+ * latest value and the terminal event emitted while the target is detached are kept, and replayed
+ * once it is attached again, so a new View gets the latest result without performing the
+ * Observable again. Events that the target has already received are never replayed.
+ * <p>
+ * Once the target has received the terminal event, the subscription is unsubscribed, so the
+ * source and the kept events are released.
+ * <p>
+ * Attach and detach it from the same Thread the values are observed on.
+ *
+ * @param <T> Type of the values
+ */
+public final class RetainedSubscription<T> implements Subscription {
+
+    private final Subscriber<? super T> target;
+    private final Subscriber<T>         source;
+
+    private Notification<T> missedValue;
+    private Notification<T> missedTerminal;
+    private boolean         attached;
+    private boolean         unsubscribed;
+
+    private RetainedSubscription(Subscriber<? super T> target, boolean attached) {
+        this.target = target;
+        this.attached = attached;
+        this.source = new Subscriber<T>() {
+            @Override
+            public void onNext(T value) {
+                deliver(Notification.createOnNext(value));
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                deliver(Notification.<T>createOnError(e));
+            }
+
+            @Override
+            public void onCompleted() {
+                deliver(Notification.<T>createOnCompleted());
+            }
+        };
+    }
+
+    /**
+     * Subscribes the target to the given Observable.
+     *
+     * @param observable The source Observable
+     * @param target     The subscriber that receives the values while it is attached
+     * @param attached   Whether the target is attached from the beginning
+     * @param <T>        Type of the values
+     * @return The retained subscription
+     */
+    public static <T> RetainedSubscription<T> subscribe(Observable<T> observable,
+                                                        Subscriber<? super T> target,
+                                                        boolean attached) {
+        RetainedSubscription<T> subscription = new RetainedSubscription<>(target, attached);
+        observable.subscribe(subscription.source);
+        return subscription;
+    }
+
+    /**
+     * Attaches the target again, replaying the latest value and the terminal event it has missed
+     * while it was detached, if any.
+     */
+    public void attach() {
+        Notification<T> value;
+        Notification<T> end;
+        synchronized (this) {
+            if (attached || unsubscribed) {
+                return;
+            }
+            attached = true;
+            value = missedValue;
+            end = missedTerminal;
+            missedValue = null;
+            missedTerminal = null;
+        }
+        if (target.isUnsubscribed()) {
+            return;
+        }
+        if (value != null) {
+            value.accept(target);
+        }
+        if (end != null) {
+            end.accept(target);
+            unsubscribe();
+        }
+    }
+
+    /**
+     * Detaches the target, the source Observable keeps running.
+     */
+    public synchronized void detach() {
+        attached = false;
+    }
+
+    private void deliver(Notification<T> notification) {
+        synchronized (this) {
+            if (unsubscribed) {
+                return;
+            }
+            if (!attached) {
+                if (notification.isOnNext()) {
+                    missedValue = notification;
+                } else {
+                    missedTerminal = notification;
+                }
+                return;
+            }
+        }
+        if (!target.isUnsubscribed()) {
+            notification.accept(target);
+        }
+        if (!notification.isOnNext()) {
+            unsubscribe();
+        }
+    }
+
+    /**
+     * Unsubscribes from the source Observable and discards the kept events.
+     */
+    @Override
+    public void unsubscribe() {
+        source.unsubscribe();
+        target.unsubscribe();
+        synchronized (this) {
+            unsubscribed = true;
+            attached = false;
+            missedValue = null;
+            missedTerminal = null;
+        }
+    }
+
+    /**
+     * Returns whether it has been unsubscribed, or the target has received the terminal event. A
+     * source that terminates while the target is detached does not unsubscribe it, since its
+     * events are still replayed.
+     */
+    @Override
+    public synchronized boolean isUnsubscribed() {
+        return unsubscribed;
+    }
+}
@@ -1,5 +1,12 @@
 package com.kuassivi.october.service.adapter;
 
+import com.kuassivi.october.service.adapter.interceptor.ConditionalRequestInterceptor;
+import com.kuassivi.october.service.adapter.interceptor.NotModifiedInterceptor;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import retrofit2.Converter;
 import retrofit2.Retrofit;
@@ -7,44 +14,121 @@ import retrofit2.RxJavaCallAdapterFactory;
 
 /**
  * Abstract Retrofit Rest Factory.
+ * <p>
+ * The {@link OkHttpClient}, the {@link Retrofit} instance and the proxy of every service are
+ * created only once and shared by every call, so the connections and the TLS sessions are
+ * reused. The Retrofit instance and the services are created again only when the api url
+ * changes.
  */
 public abstract class OctoberRetrofitFactory {
 
-    private Retrofit retrofit;
-    private String apiUrl;
+    /**
+     * Default max size of the HTTP disk cache.
+     */
+    public static final long DEFAULT_HTTP_CACHE_SIZE = 10 * 1024 * 1024;
+
+    private OkHttpClient          client;
+    private Retrofit              retrofit;
+    private String                apiUrl;
+    private volatile ServiceCache serviceCache;
 
     final public <S> S create(Class<S> service) {
-        return build().create(service);
+        ServiceCache cache = serviceCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = serviceCache;
+                if (cache == null) {
+                    build();
+                    cache = serviceCache;
+                }
+            }
+        }
+        return cache.get(service);
     }
 
     final protected OkHttpClient.Builder getDefaultClientBuilder() {
         return new OkHttpClient.Builder();
     }
 
+    /**
+     * Returns a client builder with a size-bounded HTTP disk cache, that revalidates the
+     * resources already persisted through a {@link ConditionalRequestInterceptor}.
+     * <p>
+     * The requests of the resources that have not changed fail with a {@link
+     * com.kuassivi.october.service.exception.NotModifiedException}, so wrap them with {@code
+     * DataSourceStrategy#ifModified(Observable, Observable)}.
+     * <p>
+     * <b>Usage:</b>
+     * <pre>
+     * <code>protected OkHttpClient createClient() {
+     *   return getCachingClientBuilder(new File(context.getCacheDir(), "http"),
+     *                                  DEFAULT_HTTP_CACHE_SIZE).build();
+     * }
+     * </code>
+     * </pre>
+     *
+     * @param directory    Directory of the disk cache, it must be used only by this client
+     * @param maxSizeBytes Max size of the disk cache
+     * @return The client builder
+     */
+    final protected OkHttpClient.Builder getCachingClientBuilder(File directory,
+                                                                 long maxSizeBytes) {
+        return getDefaultClientBuilder()
+                .cache(new Cache(directory, maxSizeBytes))
+                .addInterceptor(new NotModifiedInterceptor())
+                .addNetworkInterceptor(new ConditionalRequestInterceptor());
+    }
+
     final protected Retrofit.Builder getDefaultRetrofitBuilder() {
         return new Retrofit.Builder()
                 .addConverterFactory(createConverterFactory())
                 .addCallAdapterFactory(RxJavaCallAdapterFactory.create());
     }
 
-    final protected Retrofit build() {
+    /**
+     * Builds a new Retrofit instance with the shared client, discarding the created services.
+     *
+     * @return The new Retrofit instance
+     */
+    final protected synchronized Retrofit build() {
+        if (client == null) {
+            client = createClient();
+        }
         retrofit = createRetrofitBuilder()
                 .baseUrl(getApiUrl())
-                .client(createClient())
+                .client(client)
                 .build();
+        serviceCache = new ServiceCache(retrofit);
         return retrofit;
     }
 
-    final protected Retrofit getRetrofit() {
+    final protected synchronized Retrofit getRetrofit() {
         return retrofit;
     }
 
-    final protected String getApiUrl() {
+    /**
+     * Returns the shared client, or null if it has not been created yet.
+     */
+    final protected synchronized OkHttpClient getClient() {
+        return client;
+    }
+
+    final protected synchronized String getApiUrl() {
         return apiUrl;
     }
 
-    final protected void setApiUrl(String apiUrl) {
-        this.apiUrl = apiUrl;
+    /**
+     * Changes the api url, the next services are created with a new Retrofit instance.
+     *
+     * @param apiUrl The base url of the api
+     */
+    final protected synchronized void setApiUrl(String apiUrl) {
+        if (this.apiUrl == null
+            ? apiUrl != null
+            : !this.apiUrl.equals(apiUrl)) {
+            this.apiUrl = apiUrl;
+            this.serviceCache = null;
+        }
     }
 
     protected abstract OkHttpClient createClient();
@@ -52,4 +136,30 @@ public abstract class OctoberRetrofitFactory {
     protected abstract Retrofit.Builder createRetrofitBuilder();
 
     protected abstract Converter.Factory createConverterFactory();
+
+    /**
+     * Proxies of the services created by a Retrofit instance.
+     */
+    private static class ServiceCache {
+
+        private final Retrofit                            retrofit;
+        private final ConcurrentHashMap<Class<?>, Object> services = new ConcurrentHashMap<>();
+
+        ServiceCache(Retrofit retrofit) {
+            this.retrofit = retrofit;
+        }
+
+        <S> S get(Class<S> service) {
+            Object proxy = services.get(service);
+            if (proxy == null) {
+                proxy = retrofit.create(service);
+                Object previous = services.putIfAbsent(service, proxy);
+                if (previous != null) {
+                    proxy = previous;
+                }
+            }
+            //noinspection unchecked
+            return (S) proxy;
+        }
+    }
 }
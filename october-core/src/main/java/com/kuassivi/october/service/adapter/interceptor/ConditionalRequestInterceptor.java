@@ -0,0 +1,239 @@
+package com.kuassivi.october.service.adapter.interceptor;
+
+import com.kuassivi.october.repository.cache.MemoryCache;
+import com.kuassivi.october.repository.datasource.DataSourceStrategy;
+import com.kuassivi.october.service.adapter.OctoberRetrofitFactory;
+import com.kuassivi.october.service.exception.NotModifiedException;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that turns the GET requests of the resources that have already been
+ * persisted into conditional requests, and reports the resources that have not changed since
+ * with a {@link NotModifiedException}, through the {@link NotModifiedInterceptor}.
+ * <p>
+ * The ETag and Last-Modified validators of a resource are only remembered once it has been
+ * persisted, that is, once a request wrapped with {@link DataSourceStrategy#ifModified(
+ * rx.Observable, rx.Observable)} completes. They are sent back through the If-None-Match and
+ * If-Modified-Since headers when the HTTP disk cache has no response to revalidate. When the
+ * disk cache revalidates its own response, the server answer is only reported as not modified if
+ * that response is the persisted one, otherwise the cached body is parsed and persisted again.
+ * <p>
+ * Requests that are not wrapped with {@code ifModified} are never made conditional by this
+ * interceptor, and never fail with a {@link NotModifiedException}.
+ * <p>
+ * It must be installed as a network interceptor, after the disk cache, so it does not bypass it.
+ * The {@link NotModifiedInterceptor} must be installed as an application interceptor, since
+ * OkHttp retries the calls whose network interceptors fail.
+ *
+ * @see OctoberRetrofitFactory#getCachingClientBuilder(java.io.File, long)
+ */
+public class ConditionalRequestInterceptor implements Interceptor {
+
+    /**
+     * Default max number of resources whose validators are remembered.
+     */
+    public static final int DEFAULT_MAX_VALIDATORS = 256;
+
+    private static final String GET               = "GET";
+    private static final String ETAG              = "ETag";
+    private static final String LAST_MODIFIED     = "Last-Modified";
+    private static final String IF_NONE_MATCH     = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private final MemoryCache<String, Validators> validators;
+
+    public ConditionalRequestInterceptor() {
+        this(DEFAULT_MAX_VALIDATORS);
+    }
+
+    /**
+     * @param maxValidators Max number of resources whose validators are remembered
+     */
+    public ConditionalRequestInterceptor(int maxValidators) {
+        this.validators = new MemoryCache<>(maxValidators);
+    }
+
+    /**
+     * Starts collecting the validators of the resources retrieved on the current Thread.
+     * <p>
+     * The validators are only remembered once the returned scope is committed, after the
+     * retrieved resources have been persisted. Close the scope on the same Thread once the
+     * requests have been performed.
+     *
+     * @return The scope of the validators
+     */
+    public static Scope openScope() {
+        Scope scope = new Scope(SCOPE.get());
+        SCOPE.set(scope);
+        return scope;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Scope scope = SCOPE.get();
+        if (scope == null || !GET.equals(request.method())) {
+            return chain.proceed(request);
+        }
+
+        String url = request.url().toString();
+        Validators known = validators.get(url);
+        if (known != null
+            && request.header(IF_NONE_MATCH) == null
+            && request.header(IF_MODIFIED_SINCE) == null) {
+            // the disk cache has no response to revalidate
+            Request.Builder conditional = request.newBuilder();
+            if (known.etag != null) {
+                conditional.header(IF_NONE_MATCH, known.etag);
+            }
+            if (known.lastModified != null) {
+                conditional.header(IF_MODIFIED_SINCE, known.lastModified);
+            }
+            request = conditional.build();
+        }
+
+        Response response = chain.proceed(request);
+
+        if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            if (known != null && known.match(request)) {
+                // reported by the NotModifiedInterceptor, once the disk cache is updated
+                scope.markNotModified(url);
+                return response;
+            }
+            // the disk cache answers with its own response, which is persisted this time
+            scope.stage(this, url, new Validators(request.header(IF_NONE_MATCH),
+                                                  request.header(IF_MODIFIED_SINCE)));
+        } else if (response.isSuccessful()) {
+            String etag = response.header(ETAG);
+            String lastModified = response.header(LAST_MODIFIED);
+            if (etag != null || lastModified != null) {
+                scope.stage(this, url, new Validators(etag, lastModified));
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Returns the scope of the current Thread, or null if there is none.
+     */
+    static Scope currentScope() {
+        return SCOPE.get();
+    }
+
+    /**
+     * Forgets the validators of every resource, so the next requests are not conditional.
+     */
+    public void invalidateAll() {
+        validators.evictAll();
+    }
+
+    /**
+     * Validators collected on a Thread, that are remembered once the retrieved resources have
+     * been persisted.
+     */
+    public static final class Scope {
+
+        private final Scope              previous;
+        private final List<StagedValues> staged      = new ArrayList<>();
+        private final Set<String>        notModified = new HashSet<>();
+
+        private Scope(Scope previous) {
+            this.previous = previous;
+        }
+
+        private synchronized void stage(ConditionalRequestInterceptor interceptor, String url,
+                                        Validators values) {
+            staged.add(new StagedValues(interceptor, url, values));
+        }
+
+        private synchronized void markNotModified(String url) {
+            notModified.add(url);
+        }
+
+        /**
+         * Returns whether the persisted resource of the given url has not changed, and forgets it.
+         */
+        synchronized boolean takeNotModified(String url) {
+            return notModified.remove(url);
+        }
+
+        /**
+         * Remembers the collected validators, the retrieved resources must have been persisted.
+         */
+        public synchronized void commit() {
+            for (StagedValues values : staged) {
+                values.interceptor.validators.put(values.url, values.validators);
+            }
+            staged.clear();
+        }
+
+        /**
+         * Stops collecting validators on the current Thread.
+         */
+        public void close() {
+            if (SCOPE.get() == this) {
+                if (previous != null) {
+                    SCOPE.set(previous);
+                } else {
+                    SCOPE.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Validators of a resource waiting to be committed.
+     */
+    private static class StagedValues {
+
+        final ConditionalRequestInterceptor interceptor;
+        final String                        url;
+        final Validators                    validators;
+
+        StagedValues(ConditionalRequestInterceptor interceptor, String url,
+                     Validators validators) {
+            this.interceptor = interceptor;
+            this.url = url;
+            this.validators = validators;
+        }
+    }
+
+    /**
+     * Validators of a retrieved resource.
+     */
+    private static class Validators {
+
+        final String etag;
+        final String lastModified;
+
+        Validators(String etag, String lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Checks whether a conditional request validates this version of the resource, the disk
+         * cache only sends some of the validators.
+         */
+        boolean match(Request request) {
+            String ifNoneMatch = request.header(IF_NONE_MATCH);
+            String ifModifiedSince = request.header(IF_MODIFIED_SINCE);
+            return (ifNoneMatch != null || ifModifiedSince != null)
+                   && (ifNoneMatch == null || ifNoneMatch.equals(etag))
+                   && (ifModifiedSince == null || ifModifiedSince.equals(lastModified));
+        }
+    }
+}
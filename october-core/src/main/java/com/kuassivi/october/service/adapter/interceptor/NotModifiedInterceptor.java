@@ -0,0 +1,32 @@
+package com.kuassivi.october.service.adapter.interceptor;
+
+import com.kuassivi.october.service.exception.NotModifiedException;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Application interceptor that fails with a {@link NotModifiedException} the requests whose
+ * persisted resource the {@link ConditionalRequestInterceptor} has found not modified, so no
+ * response is parsed.
+ * <p>
+ * The disk cache has already been updated with the answer of the server by then.
+ */
+public class NotModifiedInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        ConditionalRequestInterceptor.Scope scope = ConditionalRequestInterceptor.currentScope();
+        String url = chain.request().url().toString();
+        if (scope != null && scope.takeNotModified(url)) {
+            if (response.body() != null) {
+                response.body().close();
+            }
+            throw new NotModifiedException(url);
+        }
+        return response;
+    }
+}
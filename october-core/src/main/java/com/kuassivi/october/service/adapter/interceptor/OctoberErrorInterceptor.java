@@ -4,25 +4,78 @@ import com.kuassivi.october.service.adapter.OctoberRetrofitFactory;
 import com.kuassivi.october.service.exception.OctoberErrorHandler;
 
 import java.io.IOException;
+import java.net.HttpURLConnection;
 
 import okhttp3.Interceptor;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 /**
  * Used in conjunction with {@link OctoberRetrofitFactory} and {@link OctoberErrorHandler}.
+ * <p>
+ * A 304 Not Modified response is not an error, so it is left to the {@link
+ * ConditionalRequestInterceptor}.
+ * <p>
+ * If the handler implements {@link OctoberErrorHandler.StatusCodes}, it is only called for the
+ * status codes it handles.
  */
 public class OctoberErrorInterceptor implements Interceptor {
 
+    /**
+     * Default max number of bytes read by {@link #peekBody(Response)}.
+     */
+    public static final long MAX_PEEKED_BYTES = 8 * 1024;
+
     OctoberErrorHandler errorHandler;
 
+    private final OctoberErrorHandler.StatusCodes statusCodes;
+
     public OctoberErrorInterceptor(OctoberErrorHandler errorHandler) {
         this.errorHandler = errorHandler;
+        this.statusCodes = errorHandler instanceof OctoberErrorHandler.StatusCodes
+                           ? (OctoberErrorHandler.StatusCodes) errorHandler
+                           : null;
+    }
+
+    /**
+     * Reads the beginning of the body of an error response, without consuming it.
+     *
+     * @param response The error response
+     * @return Up to {@link #MAX_PEEKED_BYTES} bytes of the body as a String
+     * @throws IOException if the body cannot be read
+     */
+    public static String peekBody(Response response) throws IOException {
+        return peekBody(response, MAX_PEEKED_BYTES);
+    }
+
+    /**
+     * Reads the beginning of the body of an error response, without consuming it.
+     * <p>
+     * Only the peeked bytes are buffered, so a large error body is never loaded in memory.
+     *
+     * @param response The error response
+     * @param maxBytes Max number of bytes to read
+     * @return Up to maxBytes bytes of the body as a String
+     * @throws IOException if the body cannot be read
+     */
+    public static String peekBody(Response response, long maxBytes) throws IOException {
+        ResponseBody peeked = response.peekBody(maxBytes);
+        try {
+            return peeked.string();
+        } finally {
+            peeked.close();
+        }
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
         Response response = chain.proceed(chain.request());
 
+        if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED
+            || statusCodes != null && !statusCodes.isHandled(response.code())) {
+            return response;
+        }
+
         IOException exception = errorHandler.handleError(response);
         if (exception != null) {
             throw exception;
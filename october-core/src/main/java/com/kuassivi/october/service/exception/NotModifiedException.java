@@ -0,0 +1,27 @@
+package com.kuassivi.october.service.exception;
+
+import com.kuassivi.october.exception.OctoberIOException;
+import com.kuassivi.october.service.adapter.interceptor.ConditionalRequestInterceptor;
+import com.kuassivi.october.service.adapter.interceptor.NotModifiedInterceptor;
+
+/**
+ * Thrown by the {@link NotModifiedInterceptor} when the server answers that the requested
+ * resource has not changed since the last time it was persisted, according to the {@link
+ * ConditionalRequestInterceptor}.
+ */
+public class NotModifiedException extends OctoberIOException {
+
+    private final String url;
+
+    /**
+     * @param url The url of the resource that has not changed
+     */
+    public NotModifiedException(String url) {
+        super("Not modified: " + url);
+        this.url = url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
@@ -10,8 +10,44 @@ import okhttp3.Response;
 
 /**
  * Used in conjunction with {@link OctoberRetrofitFactory}.
+ * <p>
+ * Implement {@link StatusCodes} as well to be called only for the responses whose status code
+ * you care about, i.e. the failed ones.
  */
 public interface OctoberErrorHandler {
 
     IOException handleError(@NonNull Response r);
+
+    /**
+     * Declares the status codes of the responses an {@link OctoberErrorHandler} must be called
+     * for, so the rest of responses skip it entirely.
+     * <p>
+     * <b>Usage:</b>
+     * <pre>
+     * <code>public class ApiErrorHandler implements OctoberErrorHandler, StatusCodes {
+     *
+     *   public boolean isHandled(int statusCode) {
+     *     return statusCode &gt;= 400;
+     *   }
+     *
+     *   public IOException handleError(Response r) {
+     *     try {
+     *       return new ApiException(r.code(), OctoberErrorInterceptor.peekBody(r));
+     *     } catch (IOException e) {
+     *       // the error body could not be read
+     *       return e;
+     *     }
+     *   }
+     * }
+     * </code>
+     * </pre>
+     */
+    interface StatusCodes {
+
+        /**
+         * @param statusCode The status code of a response
+         * @return Whether the handler must be called for the response
+         */
+        boolean isHandled(int statusCode);
+    }
 }
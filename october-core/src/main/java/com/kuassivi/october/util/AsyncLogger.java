@@ -0,0 +1,239 @@
+package com.kuassivi.october.util;
+
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logger that formats and writes the logs of a {@link DefaultLogger} on a background Thread.
+ * <p>
+ * The logs are queued into a bounded lock-free ring buffer, so logging never blocks the calling
+ * Thread. Logs are dropped while the buffer is full, and counted through {@link
+ * #getDroppedCount()}.
+ * <p>
+ * The tracking methods capture the stack on the calling Thread, but the tracking info is built on
+ * the background Thread.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ * <code>ILogger logger = new AsyncLogger(new AppLogger());
+ * </code>
+ * </pre>
+ */
+public class AsyncLogger implements ILogger {
+
+    /**
+     * Default capacity of the ring buffer.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final String TRACKING_TAG = "TRACKING";
+
+    private final DefaultLogger                  logger;
+    private final AtomicReferenceArray<LogEntry> buffer;
+    private final int                            mask;
+    private final AtomicLong                     tail    = new AtomicLong();
+    private final AtomicLong                     dropped = new AtomicLong();
+    private final Thread                         writer;
+
+    private volatile long    head;
+    private volatile boolean waiting;
+
+    /**
+     * @param logger The logger that formats and writes the logs
+     */
+    public AsyncLogger(DefaultLogger logger) {
+        this(logger, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param logger   The logger that formats and writes the logs
+     * @param capacity Max number of queued logs, it is rounded up to a power of two
+     */
+    public AsyncLogger(DefaultLogger logger, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.logger = logger;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "october-logger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void v(String tag, String msg) {
+        v(tag, msg, null);
+    }
+
+    @Override
+    public void v(String tag, String msg, Throwable e) {
+        offer(new LogEntry(Log.VERBOSE, tag, msg, e, null));
+    }
+
+    @Override
+    public void d(String tag, String msg) {
+        d(tag, msg, null);
+    }
+
+    @Override
+    public void d(String tag, String msg, Throwable e) {
+        offer(new LogEntry(Log.DEBUG, tag, msg, e, null));
+    }
+
+    @Override
+    public void i(String tag, String msg) {
+        i(tag, msg, null);
+    }
+
+    @Override
+    public void i(String tag, String msg, Throwable e) {
+        offer(new LogEntry(Log.INFO, tag, msg, e, null));
+    }
+
+    @Override
+    public void w(String tag, String msg) {
+        w(tag, msg, null);
+    }
+
+    @Override
+    public void w(String tag, String msg, Throwable e) {
+        offer(new LogEntry(Log.WARN, tag, msg, e, null));
+    }
+
+    @Override
+    public void e(String tag, String msg) {
+        e(tag, msg, null);
+    }
+
+    @Override
+    public void e(String tag, String msg, Throwable e) {
+        offer(new LogEntry(Log.ERROR, tag, msg, e, null));
+    }
+
+    @Override
+    public void track() {
+        track(null);
+    }
+
+    @Override
+    public void track(String msg) {
+        track(TRACKING_TAG, msg);
+    }
+
+    @Override
+    public void track(String tag, String msg) {
+        offer(new LogEntry(Log.INFO, tag, msg, null, new Throwable().getStackTrace()));
+    }
+
+    @Override
+    public void logException(Throwable thr) {
+        offer(new LogEntry(LogEntry.EXCEPTION, null, null, thr, null));
+    }
+
+    @Override
+    public void setProjectPackage(String projectPackage) {
+        logger.setProjectPackage(projectPackage);
+    }
+
+    /**
+     * Returns the number of logs dropped because the buffer was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Queues a log, or drops it if the buffer is full.
+     */
+    private void offer(LogEntry entry) {
+        long index;
+        do {
+            index = tail.get();
+            if (index - head >= buffer.length()) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(index, index + 1));
+        buffer.set((int) index & mask, entry);
+        if (waiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Writes the queued logs on the background Thread, waiting while the buffer is empty.
+     */
+    private void drain() {
+        long index = head;
+        while (true) {
+            int slot = (int) index & mask;
+            LogEntry entry = buffer.get(slot);
+            if (entry == null) {
+                waiting = true;
+                // a log queued meanwhile would not unpark this Thread
+                if (buffer.get(slot) == null) {
+                    LockSupport.park(this);
+                }
+                waiting = false;
+                continue;
+            }
+            buffer.set(slot, null);
+            head = ++index;
+            try {
+                write(entry);
+            } catch (RuntimeException e) {
+                Log.e("[October]", "Cannot write the log", e);
+            }
+        }
+    }
+
+    private void write(LogEntry entry) {
+        if (entry.priority == LogEntry.EXCEPTION) {
+            logger.logException(entry.throwable);
+        } else if (entry.stacktrace != null) {
+            logger.processLog(entry.priority, entry.tag,
+                              logger.getStackInfo(entry.stacktrace,
+                                                  AsyncLogger.class.getName(),
+                                                  entry.msg),
+                              null);
+        } else {
+            logger.processLog(entry.priority, entry.tag, entry.msg, entry.throwable);
+        }
+    }
+
+    /**
+     * A queued log.
+     */
+    private static class LogEntry {
+
+        static final int EXCEPTION = -1;
+
+        final int                 priority;
+        final String              tag;
+        final String              msg;
+        final Throwable           throwable;
+        final StackTraceElement[] stacktrace;
+
+        LogEntry(int priority, String tag, String msg, Throwable throwable,
+                 StackTraceElement[] stacktrace) {
+            this.priority = priority;
+            this.tag = tag;
+            this.msg = msg;
+            this.throwable = throwable;
+            this.stacktrace = stacktrace;
+        }
+    }
+}
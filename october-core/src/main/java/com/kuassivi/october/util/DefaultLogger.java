@@ -1,15 +1,24 @@
 package com.kuassivi.october.util;
 
+import com.kuassivi.october.repository.cache.MemoryCache;
+
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 import android.util.Log;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
 /**
  * Abstract logger class that helps your to implement an Custom Error Logger.
  * <p>
  * Maybe you can avoid to show Log messages in Production Environment, performing your logic
  * through the {@link #processLog(int, String, String, Throwable)} method.
  * <p>
+ * The tracking info of every call site is built only once, and cached along with the frames of
+ * the project that lead to it.
+ * <p>
  * {@inheritDoc}
  */
 public abstract class DefaultLogger implements ILogger {
@@ -17,7 +26,16 @@ public abstract class DefaultLogger implements ILogger {
     private static final String TRACKING_TAG            = "TRACKING";
     private static final String TRACKING_METHOD         = "track";
     private static final String JAVA_EXTENSION_FILE     = ".java";
-    private static final String TRACKING_METHOD_PATTERN = "^\\w+\\(\\)\\s*\\-\\>\\s*(.*)";
+    private static final Pattern TRACKING_METHOD_PATTERN =
+            Pattern.compile("^\\w+\\(\\)\\s*\\-\\>\\s*(.*)");
+
+    /**
+     * Max number of call sites whose tracking info is cached.
+     */
+    private static final int MAX_TRACKED_CALL_SITES = 256;
+
+    private final MemoryCache<List<StackTraceElement>, String> trackedCallSites =
+            new MemoryCache<>(MAX_TRACKED_CALL_SITES);
 
     protected String projectPackage;
 
@@ -92,46 +110,70 @@ public abstract class DefaultLogger implements ILogger {
     }
 
     protected String getStackInfo(String msg) {
-        StackTraceElement[] stacktrace = Thread.currentThread().getStackTrace();
+        return getStackInfo(new Throwable().getStackTrace(), DefaultLogger.class.getName(), msg);
+    }
 
-        String trace = "", method = "", lastMethod = "", lastClassName = "";
-        boolean isTraceMethod = false;
-        for (StackTraceElement e : stacktrace) {
-            if (e.getClassName().equals(DefaultLogger.class.getName())
-                && TextUtils.equals(e.getMethodName(), TRACKING_METHOD)) {
-                isTraceMethod = true;
-            } else if (isTraceMethod) {
-                if (e.getClassName().contains(projectPackage)) {
-                    if (e.getMethodName().equals(method)
-                        || e.getMethodName().equals(lastMethod)
-                        || lastMethod.equals(method)) {
-                        trace = trace.replaceFirst(TRACKING_METHOD_PATTERN, "$1");
-                    }
-                    String currentClassName = e.getFileName().replace(JAVA_EXTENSION_FILE, "");
-                    if (currentClassName.equals(lastClassName)) {
-                        continue;
-                    }
-                    lastClassName = currentClassName;
-                    trace = (!e.getMethodName().equals(method)
-                             ? e.getMethodName()
-                               + "() -> "
-                             : "")
-                            + "[" + lastClassName + "] -> "
-                            + trace;
-                    if (lastMethod.isEmpty()) {
-                        lastMethod = e.getMethodName();
-                    }
-                    method = e.getMethodName();
-                } else {
-                    break;
-                }
+    /**
+     * Builds the tracking info of the given stack.
+     *
+     * @param stacktrace    The stack captured on the tracked Thread
+     * @param trackingClass Name of the class whose {@code track} methods have captured it
+     * @param msg           The message to append, if any
+     * @return The tracking info
+     */
+    String getStackInfo(StackTraceElement[] stacktrace, String trackingClass, String msg) {
+        int from = 0;
+        for (int i = 0; i < stacktrace.length; i++) {
+            if (stacktrace[i].getClassName().equals(trackingClass)
+                && TextUtils.equals(stacktrace[i].getMethodName(), TRACKING_METHOD)) {
+                from = i + 1;
+            } else if (from > 0) {
+                break;
             }
         }
-        trace = trace.replaceFirst(TRACKING_METHOD_PATTERN, "$1") + lastMethod + "()";
+        int to = from;
+        while (from > 0 && to < stacktrace.length
+               && stacktrace[to].getClassName().contains(projectPackage)) {
+            to++;
+        }
 
-        return trace + (msg != null
-                        ? ": " + msg
-                        : "");
+        List<StackTraceElement> callSite = Arrays.asList(Arrays.copyOfRange(stacktrace, from, to));
+        String trace = trackedCallSites.get(callSite);
+        if (trace == null) {
+            trace = buildTrace(callSite);
+            trackedCallSites.put(callSite, trace);
+        }
+
+        return msg != null
+               ? trace + ": " + msg
+               : trace;
+    }
+
+    private static String buildTrace(List<StackTraceElement> callSite) {
+        String trace = "", method = "", lastMethod = "", lastClassName = "";
+        for (StackTraceElement e : callSite) {
+            if (e.getMethodName().equals(method)
+                || e.getMethodName().equals(lastMethod)
+                || lastMethod.equals(method)) {
+                trace = TRACKING_METHOD_PATTERN.matcher(trace).replaceFirst("$1");
+            }
+            String currentClassName = e.getFileName().replace(JAVA_EXTENSION_FILE, "");
+            if (currentClassName.equals(lastClassName)) {
+                continue;
+            }
+            lastClassName = currentClassName;
+            trace = (!e.getMethodName().equals(method)
+                     ? e.getMethodName()
+                       + "() -> "
+                     : "")
+                    + "[" + lastClassName + "] -> "
+                    + trace;
+            if (lastMethod.isEmpty()) {
+                lastMethod = e.getMethodName();
+            }
+            method = e.getMethodName();
+        }
+        return TRACKING_METHOD_PATTERN.matcher(trace).replaceFirst("$1") + lastMethod + "()";
     }
 
     public abstract void processLog(int priority, @Nullable String tag, @Nullable String msg,
@@ -2,11 +2,24 @@ package com.kuassivi.october.util;
 
 import android.util.Log;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Utility class to prevent method loops.
+ * <p>
+ * The stack is inspected only the first time a method is checked for every class, and the
+ * verdict is cached for the next calls. Guard the calls with the debug flag of the application,
+ * such as {@code October.isDebuggable()}, so they are skipped in release builds.
  */
 public class MethodLooper {
 
+    /**
+     * Whether the method of every checked class is overloaded, keyed by class and then by method
+     * name, so checking a method again does not allocate anything.
+     */
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Boolean>> VERDICTS =
+            new ConcurrentHashMap<>();
+
     /**
      * Prevent and warn when overloading the same method multiple times.
      *
@@ -14,7 +27,19 @@ public class MethodLooper {
      */
     public static void warning(Object that, String methodName) {
         Class<?> clazz = that.getClass();
-        StackTraceElement[] stacktrace = Thread.currentThread().getStackTrace();
+        ConcurrentHashMap<String, Boolean> verdicts = VERDICTS.get(clazz);
+        if (verdicts == null) {
+            ConcurrentHashMap<String, Boolean> created = new ConcurrentHashMap<>();
+            verdicts = VERDICTS.putIfAbsent(clazz, created);
+            if (verdicts == null) {
+                verdicts = created;
+            }
+        }
+        if (verdicts.containsKey(methodName)) {
+            return;
+        }
+        // cheaper than Thread#getStackTrace(), which also walks the frames of the Thread itself
+        StackTraceElement[] stacktrace = new Throwable().getStackTrace();
         boolean overloaded = false;
         int i = 0, o = 0;
         boolean isPreviousMethod = false;
@@ -45,7 +70,7 @@ public class MethodLooper {
             }
         }
         String previousMethod = stacktrace[i - 2].getMethodName();
-        if (overloaded) {
+        if (verdicts.putIfAbsent(methodName, overloaded) == null && overloaded) {
             Log.w(clazz.getSimpleName(), "You are calling repeatedly" +
                                          " super." + previousMethod + "() from " +
                                          clazz.getSimpleName() + " -> "
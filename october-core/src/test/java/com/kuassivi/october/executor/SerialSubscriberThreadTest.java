@@ -0,0 +1,81 @@
+package com.kuassivi.october.executor;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SerialSubscriberThreadTest {
+
+    @Test
+    public void runsTheTasksOfTheSameKeyOneAtATime() throws InterruptedException {
+        SerialSubscriberThread serial = new SerialSubscriberThread(4);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        int tasks = 50;
+        final CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            // every task comes from a different worker, like different subscriptions
+            serial.forKey("user-1").getScheduler().createWorker().schedule(() -> {
+                int current = running.incrementAndGet();
+                maxRunning.set(Math.max(maxRunning.get(), current));
+                sleep(1);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void runsTheTasksOfDifferentKeysInParallel() throws InterruptedException {
+        SerialSubscriberThread serial = new SerialSubscriberThread(2);
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        final CountDownLatch done = new CountDownLatch(2);
+        for (String key : new String[]{"user-1", "user-2"}) {
+            serial.forKey(key).getScheduler().createWorker().schedule(() -> {
+                bothStarted.countDown();
+                try {
+                    bothStarted.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, bothStarted.getCount());
+    }
+
+    @Test
+    public void releasesTheKeysWithoutPendingTasks() throws InterruptedException {
+        SerialSubscriberThread serial = new SerialSubscriberThread(4);
+        int keys = 1000;
+        final CountDownLatch done = new CountDownLatch(keys);
+        for (int i = 0; i < keys; i++) {
+            serial.forKey(i).getScheduler().createWorker().schedule(done::countDown);
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (serial.getActiveKeyCount() > 0 && System.currentTimeMillis() < deadline) {
+            sleep(1);
+        }
+        assertEquals(0, serial.getActiveKeyCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
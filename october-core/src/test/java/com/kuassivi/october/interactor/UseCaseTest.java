@@ -0,0 +1,204 @@
+package com.kuassivi.october.interactor;
+
+import com.kuassivi.october.executor.ObserverThread;
+import com.kuassivi.october.executor.SubscriberThread;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+
+public class UseCaseTest {
+
+    private static final SubscriberThread SUBSCRIBER_THREAD = Schedulers::immediate;
+    private static final ObserverThread   OBSERVER_THREAD   = Schedulers::immediate;
+
+    private FakeClock     clock;
+    private AtomicInteger provided;
+    private AtomicInteger subscriptions;
+
+    @Before
+    public void setUp() {
+        clock = new FakeClock();
+        UseCase.setClock(clock);
+        UseCase.invalidateAll();
+        provided = new AtomicInteger();
+        subscriptions = new AtomicInteger();
+    }
+
+    @After
+    public void tearDown() {
+        UseCase.invalidateAll();
+        UseCase.setClock(null);
+    }
+
+    @Test
+    public void replaysTheMemoizedValueWithoutProvidingTheObservable() {
+        GetUser getUser = memoized(new GetUser("user"));
+
+        assertValue(getUser, "user 1");
+        assertValue(getUser, "user 1");
+        assertValue(memoized(new GetUser("user")), "user 1");
+
+        assertEquals(1, provided.get());
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    public void performsTheObservableAgainOnceTheValueExpires() {
+        GetUser getUser = memoized(new GetUser("user"));
+        assertValue(getUser, "user 1");
+
+        clock.advance(999, TimeUnit.MILLISECONDS);
+        assertValue(getUser, "user 1");
+
+        clock.advance(1, TimeUnit.MILLISECONDS);
+        assertValue(getUser, "user 2");
+        assertEquals(2, provided.get());
+    }
+
+    @Test
+    public void doesNotMemoizeUnlessEnabled() {
+        GetUser getUser = new GetUser("user");
+
+        assertValue(getUser, "user 1");
+        assertValue(getUser, "user 2");
+    }
+
+    @Test
+    public void memoizesEveryParameterApart() {
+        GetUser user = memoized(new GetUser("user"));
+        GetUser admin = memoized(new GetUser("admin"));
+
+        assertValue(user, "user 1");
+        assertValue(admin, "admin 2");
+        assertValue(user, "user 1");
+        assertValue(admin, "admin 2");
+    }
+
+    @Test
+    public void invalidatesTheValueOfTheCurrentParameters() {
+        GetUser user = memoized(new GetUser("user"));
+        GetUser admin = memoized(new GetUser("admin"));
+        assertValue(user, "user 1");
+        assertValue(admin, "admin 2");
+
+        user.invalidate();
+
+        assertValue(user, "user 3");
+        assertValue(admin, "admin 2");
+    }
+
+    @Test
+    public void invalidatesEveryValueOfTheUseCaseClass() {
+        GetUser user = memoized(new GetUser("user"));
+        GetUser admin = memoized(new GetUser("admin"));
+        GetUser other = memoized(new OtherGetUser("user"));
+        assertValue(user, "user 1");
+        assertValue(admin, "admin 2");
+        assertValue(other, "user 3");
+
+        UseCase.invalidateAll(GetUser.class);
+
+        assertValue(user, "user 4");
+        assertValue(admin, "admin 5");
+        assertValue(other, "user 3");
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedValues() {
+        GetUser first = memoized(new GetUser("user 0"));
+        assertValue(first, "user 0 1");
+        for (int i = 1; i < 64; i++) {
+            assertValue(memoized(new GetUser("user " + i)), "user " + i + " " + (i + 1));
+        }
+        assertValue(first, "user 0 1");
+
+        // the second one is now the least recently used
+        assertValue(memoized(new GetUser("user 64")), "user 64 65");
+
+        assertValue(first, "user 0 1");
+        assertValue(memoized(new GetUser("user 1")), "user 1 66");
+    }
+
+    @Test
+    public void doesNotMemoizeFailedCalls() {
+        GetUser getUser = memoized(new GetUser("user") {
+            @Override
+            protected Observable<String> provideObservable() {
+                provided.incrementAndGet();
+                return Observable.error(new IllegalStateException());
+            }
+        });
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        getUser.subscribe(subscriber);
+        subscriber.assertError(IllegalStateException.class);
+        getUser.subscribe(new TestSubscriber<>());
+
+        assertEquals(2, provided.get());
+    }
+
+    private <U extends UseCase<String>> U memoized(U useCase) {
+        useCase.memoize(1, TimeUnit.SECONDS);
+        return useCase;
+    }
+
+    private void assertValue(UseCase<String> useCase, String value) {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        useCase.subscribe(subscriber);
+        subscriber.assertValue(value);
+        subscriber.assertCompleted();
+    }
+
+    private class GetUser extends UseCase<String> {
+
+        private final String name;
+
+        GetUser(String name) {
+            super(SUBSCRIBER_THREAD, OBSERVER_THREAD);
+            this.name = name;
+        }
+
+        @Override
+        protected Observable<String> provideObservable() {
+            provided.incrementAndGet();
+            return Observable.defer(
+                    () -> Observable.just(name + " " + subscriptions.incrementAndGet()));
+        }
+
+        @Override
+        protected Object[] provideMemoizationParameters() {
+            return new Object[]{name};
+        }
+    }
+
+    private class OtherGetUser extends GetUser {
+
+        OtherGetUser(String name) {
+            super(name);
+        }
+    }
+
+    private static class FakeClock implements UseCase.Clock {
+
+        private long nanos;
+
+        @Override
+        public long nanoTime() {
+            return nanos;
+        }
+
+        void advance(long time, TimeUnit unit) {
+            nanos += unit.toNanos(time);
+        }
+    }
+}
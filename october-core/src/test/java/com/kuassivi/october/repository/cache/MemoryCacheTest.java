@@ -0,0 +1,107 @@
+package com.kuassivi.october.repository.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MemoryCacheTest {
+
+    @Test
+    public void evictsTheLeastRecentlyUsedEntry() {
+        MemoryCache<String, String> cache = new MemoryCache<>(2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertNull(cache.get("b"));
+        assertEquals(Arrays.asList("a", "c"), cache.keys());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void measuresCollectionsByTheirSize() {
+        MemoryCache<String, List<Integer>> cache = new MemoryCache<>(4);
+        cache.put("a", Arrays.asList(1, 2, 3));
+        cache.put("b", Arrays.asList(1, 2));
+
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void replacingAnEntryKeepsTheSize() {
+        MemoryCache<String, String> cache = new MemoryCache<>(2);
+        cache.put("a", "A");
+
+        assertEquals("A", cache.put("a", "A2"));
+        assertEquals(1, cache.size());
+        assertEquals("A2", cache.get("a"));
+    }
+
+    @Test
+    public void reportsEvictedEntriesButNotRemovedOnes() {
+        final List<String> evicted = new ArrayList<>();
+        MemoryCache<String, String> cache = new MemoryCache<String, String>(1) {
+            @Override
+            protected void entryEvicted(String key, String value) {
+                evicted.add(key + "=" + value);
+            }
+        };
+        cache.put("a", "A");
+        cache.remove("a");
+        cache.put("b", "B");
+        cache.put("c", "C");
+
+        assertEquals(Collections.singletonList("b=B"), evicted);
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        MemoryCache<String, String> cache = new MemoryCache<>(1);
+        cache.put("a", "A");
+        cache.get("a");
+        cache.get("b");
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void neverExceedsItsMaxSizeUnderConcurrentPuts() throws InterruptedException {
+        final MemoryCache<Integer, Integer> cache = new MemoryCache<>(64);
+        final AtomicInteger evictions = new AtomicInteger();
+        final MemoryCache<Integer, Integer> counted = new MemoryCache<Integer, Integer>(64) {
+            @Override
+            protected void entryEvicted(Integer key, Integer value) {
+                evictions.incrementAndGet();
+            }
+        };
+        int threads = 4;
+        final int puts = 10000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * puts;
+            new Thread(() -> {
+                for (int i = 0; i < puts; i++) {
+                    cache.put(offset + i, i);
+                    counted.put(offset + i, i);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        assertEquals(64, cache.size());
+        assertEquals(64, cache.keys().size());
+        assertEquals(threads * puts - 64, evictions.get());
+    }
+}
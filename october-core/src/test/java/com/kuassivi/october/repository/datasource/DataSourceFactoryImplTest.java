@@ -0,0 +1,169 @@
+package com.kuassivi.october.repository.datasource;
+
+import com.kuassivi.annotation.RepositoryProxyCache;
+import com.kuassivi.october.repository.cache.CacheKey;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DataSourceFactoryImplTest {
+
+    private PublishSubject<String>                 local;
+    private PublishSubject<String>                 cloud;
+    private RepositoryProxyCache                   cache;
+    private DataSourceFactoryImpl<UserDataSource> factory;
+
+    @Before
+    public void setUp() {
+        local = PublishSubject.create();
+        cloud = PublishSubject.create();
+        cache = mock(RepositoryProxyCache.class);
+        when(cache.isExpired()).thenReturn(true);
+        factory = new DataSourceFactoryImpl<>(new CloudUserDataSource(cloud),
+                                              new LocalUserDataSource(local));
+        factory.attach(new NoOpBuilder());
+    }
+
+    @Test
+    public void requestsTheCloudWithoutWaitingForTheLocalCopy() {
+        TestSubscriber<String> subscriber = revalidate();
+
+        assertTrue(local.hasObservers());
+        assertTrue(cloud.hasObservers());
+        local.onNext("stale");
+        subscriber.assertValues("stale");
+    }
+
+    @Test
+    public void emitsTheFreshCopyWhenTheLocalRequestNeverCompletes() {
+        TestSubscriber<String> subscriber = revalidate();
+
+        local.onNext("stale");
+        cloud.onNext("fresh");
+        cloud.onCompleted();
+
+        subscriber.assertValues("stale", "fresh");
+        subscriber.assertCompleted();
+        assertFalse(local.hasObservers());
+    }
+
+    @Test
+    public void completesWhenTheCloudCompletesWithoutAFreshCopy() {
+        TestSubscriber<String> subscriber = revalidate();
+
+        cloud.onCompleted();
+
+        subscriber.assertNoValues();
+        subscriber.assertCompleted();
+        assertFalse(local.hasObservers());
+    }
+
+    @Test
+    public void doesNotEmitStaleCopiesAfterTheFreshOne() {
+        TestSubscriber<String> subscriber = revalidate();
+
+        cloud.onNext("fresh");
+        local.onNext("stale");
+
+        subscriber.assertValues("fresh");
+    }
+
+    @Test
+    public void ignoresTheErrorsOfTheLocalRequest() {
+        TestSubscriber<String> subscriber = revalidate();
+
+        local.onError(new IllegalStateException());
+        cloud.onNext("fresh");
+        cloud.onCompleted();
+
+        subscriber.assertValues("fresh");
+        subscriber.assertCompleted();
+    }
+
+    @Test
+    public void emitsTheErrorsOfTheCloudRequest() {
+        TestSubscriber<String> subscriber = revalidate();
+
+        local.onNext("stale");
+        cloud.onError(new IOException());
+
+        subscriber.assertValues("stale");
+        subscriber.assertError(IOException.class);
+        assertFalse(local.hasObservers());
+    }
+
+    @Test
+    public void onlyRequestsTheLocalCopyWhileTheCacheIsNotExpired() {
+        when(cache.isExpired()).thenReturn(false);
+
+        TestSubscriber<String> subscriber = revalidate();
+        local.onNext("cached");
+        local.onCompleted();
+
+        assertFalse(cloud.hasObservers());
+        subscriber.assertValues("cached");
+        subscriber.assertCompleted();
+    }
+
+    private TestSubscriber<String> revalidate() {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        factory.createStaleWhileRevalidateService(cache, CacheKey.of("getUser"),
+                                                  UserDataSource::getUser)
+               .subscribe(subscriber);
+        return subscriber;
+    }
+
+    private abstract static class UserDataSource extends DataSourceStrategy {
+
+        private final Observable<String> user;
+
+        UserDataSource(Observable<String> user) {
+            this.user = user;
+        }
+
+        Observable<String> getUser() {
+            return user;
+        }
+    }
+
+    private static class LocalUserDataSource extends UserDataSource implements ILocalDataSource {
+
+        LocalUserDataSource(Observable<String> user) {
+            super(user);
+        }
+    }
+
+    private static class CloudUserDataSource extends UserDataSource implements ICloudDataSource {
+
+        CloudUserDataSource(Observable<String> user) {
+            super(user);
+        }
+    }
+
+    private static class NoOpBuilder implements DataSourceFactory.Builder<UserDataSource> {
+
+        @Override
+        public void attach(UserDataSource dataSourceStrategy) {}
+
+        @Override
+        public DataSourceFactory<UserDataSource> getDataSourceFactory() {
+            return null;
+        }
+
+        @Override
+        public <E> Observable<E> build(Observable<E> observable) {
+            return observable;
+        }
+    }
+}
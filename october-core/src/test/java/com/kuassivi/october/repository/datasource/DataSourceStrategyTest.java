@@ -0,0 +1,207 @@
+package com.kuassivi.october.repository.datasource;
+
+import com.kuassivi.october.repository.cache.CacheKey;
+import com.kuassivi.october.repository.cache.MemoryCache;
+import com.kuassivi.october.repository.policy.CallPolicy;
+import com.kuassivi.october.repository.policy.RetryPolicy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DataSourceStrategyTest {
+
+    private MemoryCache<CacheKey, Object> memoryCache;
+    private DataSourceStrategy            strategy;
+
+    @Before
+    public void setUp() {
+        memoryCache = new MemoryCache<>(16);
+        strategy = new DataSourceStrategy() {
+        };
+    }
+
+    @Test
+    public void emitsTheMemoizedEntityWithoutSubscribing() {
+        CacheKey key = CacheKey.of("getUser", 1);
+        memoryCache.put(key, "cached");
+        strategy.attachMemoryCache(memoryCache, key);
+        final AtomicInteger subscriptions = new AtomicInteger();
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        strategy.delegate(Observable.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Observable.just("fresh");
+        })).subscribe(subscriber);
+
+        subscriber.assertValue("cached");
+        assertEquals(0, subscriptions.get());
+    }
+
+    @Test
+    public void storesEveryEntityUnderTheKeyOfItsOwnCall() {
+        CacheKey user1 = CacheKey.of("getUser", 1);
+        CacheKey user2 = CacheKey.of("getUser", 2);
+        PublishSubject<String> response1 = PublishSubject.create();
+        PublishSubject<String> response2 = PublishSubject.create();
+
+        strategy.attachMemoryCache(memoryCache, user1);
+        Observable<String> call1 = strategy.delegate(response1.map(strategy::persistCache));
+        strategy.attachMemoryCache(memoryCache, user2);
+        Observable<String> call2 = strategy.delegate(response2.map(strategy::persistCache));
+        call1.subscribe(new TestSubscriber<>());
+        call2.subscribe(new TestSubscriber<>());
+
+        // the first call responds after the second one has been attached
+        response1.onNext("user 1");
+        response2.onNext("user 2");
+        response1.onCompleted();
+        response2.onCompleted();
+
+        assertEquals("user 1", memoryCache.get(user1));
+        assertEquals("user 2", memoryCache.get(user2));
+    }
+
+    @Test
+    public void doesNotStoreEntitiesThatSkipPersistCache() {
+        CacheKey key = CacheKey.of("getUsers");
+        strategy.attachMemoryCache(memoryCache, key);
+
+        strategy.delegate(Observable.just("managed")).subscribe(new TestSubscriber<>());
+
+        assertNull(memoryCache.get(key));
+    }
+
+    @Test
+    public void composesEveryRetriedSubscription() {
+        final TestScheduler scheduler = new TestScheduler();
+        final CallPolicy policy = new RetryPolicy(1, 100, 100, scheduler);
+        final AtomicInteger composed = new AtomicInteger();
+        strategy = new DataSourceStrategy() {
+            @Override
+            protected CallPolicy getCallPolicy() {
+                return policy;
+            }
+
+            @Override
+            <T> Observable<T> compose(Observable<T> observable) {
+                return observable.doOnSubscribe(composed::incrementAndGet);
+            }
+        };
+        final AtomicInteger subscriptions = new AtomicInteger();
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        strategy.delegate(Observable.defer(() -> subscriptions.incrementAndGet() == 1
+                                                 ? Observable.<String>error(new IOException())
+                                                 : Observable.just("user")))
+                .subscribe(subscriber);
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        subscriber.assertValue("user");
+        assertEquals(2, composed.get());
+    }
+
+    @Test
+    public void doesNotMistakeEqualEntitiesOfAnotherCall() {
+        CacheKey user1 = CacheKey.of("getUser", 1);
+        CacheKey user2 = CacheKey.of("getUser", 2);
+
+        // the first call has persisted its entity but not emitted it yet
+        strategy.attachMemoryCache(memoryCache, user1);
+        String pending = strategy.persistCache(new String("user"));
+        strategy.attachMemoryCache(memoryCache, user2);
+        // equal to the pending entity of the first call, but never passed to persistCache
+        strategy.delegate(Observable.just(new String("user"))).subscribe(new TestSubscriber<>());
+
+        assertNull(memoryCache.get(user2));
+        assertEquals("user", pending);
+    }
+
+    @Test
+    public void neverHashesThePersistedEntities() {
+        final AtomicInteger hashes = new AtomicInteger();
+        Object entity = new Object() {
+            @Override
+            public int hashCode() {
+                hashes.incrementAndGet();
+                return super.hashCode();
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                hashes.incrementAndGet();
+                return super.equals(o);
+            }
+        };
+
+        strategy.persistCache(entity);
+        strategy.attachMemoryCache(memoryCache, CacheKey.of("getUser"));
+        strategy.delegate(Observable.just(entity).map(strategy::persistCache))
+                .subscribe(new TestSubscriber<>());
+
+        assertEquals(0, hashes.get());
+    }
+
+    @Test
+    public void coalescesTheConcurrentCallsOfTheSameDataSource() {
+        CacheKey key = CacheKey.of("getUser", 1);
+        PublishSubject<String> response = PublishSubject.create();
+        AtomicInteger subscriptions = new AtomicInteger();
+        Observable<String> call = response.doOnSubscribe(subscriptions::incrementAndGet);
+
+        TestSubscriber<String> first = new TestSubscriber<>();
+        TestSubscriber<String> second = new TestSubscriber<>();
+        strategy.delegate(key, call).subscribe(first);
+        strategy.delegate(key, call).subscribe(second);
+        response.onNext("user");
+
+        assertEquals(1, subscriptions.get());
+        first.assertValue("user");
+        second.assertValue("user");
+    }
+
+    @Test
+    public void doesNotCoalesceTheCallsOfAnotherDataSource() {
+        CacheKey key = CacheKey.of("getUser", 1);
+        AtomicInteger subscriptions = new AtomicInteger();
+        Observable<String> call = Observable.<String>never()
+                                            .doOnSubscribe(subscriptions::incrementAndGet);
+        DataSourceStrategy another = new DataSourceStrategy() {
+        };
+
+        strategy.delegate(key, call).subscribe(new TestSubscriber<>());
+        another.delegate(key, call).subscribe(new TestSubscriber<>());
+
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    public void doesNotCoalesceTheCallsOfANonCoalescableDataSource() {
+        CacheKey key = CacheKey.of("getUser", 1);
+        AtomicInteger subscriptions = new AtomicInteger();
+        Observable<String> call = Observable.<String>never()
+                                            .doOnSubscribe(subscriptions::incrementAndGet);
+        strategy = new DataSourceStrategy() {
+            @Override
+            boolean isCoalescable() {
+                return false;
+            }
+        };
+
+        strategy.delegate(key, call).subscribe(new TestSubscriber<>());
+        strategy.delegate(key, call).subscribe(new TestSubscriber<>());
+
+        assertEquals(2, subscriptions.get());
+    }
+}
@@ -0,0 +1,99 @@
+package com.kuassivi.october.repository.datasource;
+
+import com.kuassivi.october.repository.cache.CacheKey;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Observable;
+import rx.Subscription;
+import rx.observers.TestSubscriber;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+
+public class InFlightRequestsTest {
+
+    private InFlightRequests       requests;
+    private PublishSubject<String> response;
+    private AtomicInteger          subscriptions;
+    private Observable<String>     upstream;
+
+    @Before
+    public void setUp() {
+        requests = new InFlightRequests();
+        response = PublishSubject.create();
+        subscriptions = new AtomicInteger();
+        upstream = response.doOnSubscribe(subscriptions::incrementAndGet);
+    }
+
+    @Test
+    public void sharesTheRequestAmongConcurrentSubscriptions() {
+        CacheKey key = CacheKey.of("getUser", 1);
+        TestSubscriber<String> first = new TestSubscriber<>();
+        TestSubscriber<String> second = new TestSubscriber<>();
+
+        requests.coalesce(key, upstream).subscribe(first);
+        requests.coalesce(key, upstream).subscribe(second);
+        response.onNext("user");
+        response.onCompleted();
+
+        assertEquals(1, subscriptions.get());
+        first.assertValue("user");
+        second.assertValue("user");
+        second.assertCompleted();
+        assertEquals(0, requests.size());
+    }
+
+    @Test
+    public void doesNotShareRequestsWithDifferentKeys() {
+        requests.coalesce(CacheKey.of("getUser", 1), upstream).subscribe(new TestSubscriber<>());
+        requests.coalesce(CacheKey.of("getUser", 2), upstream).subscribe(new TestSubscriber<>());
+
+        assertEquals(2, subscriptions.get());
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void startsANewRequestOnceThePreviousOneHasTerminated() {
+        CacheKey key = CacheKey.of("getUser", 1);
+        requests.coalesce(key, Observable.just("first")).subscribe(new TestSubscriber<>());
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        requests.coalesce(key, Observable.just("second")).subscribe(subscriber);
+
+        subscriber.assertValue("second");
+    }
+
+    @Test
+    public void releasesTheRequestWhenEverySubscriberUnsubscribes() {
+        CacheKey key = CacheKey.of("getUser", 1);
+        Subscription first = requests.coalesce(key, upstream).subscribe(new TestSubscriber<>());
+        Subscription second = requests.coalesce(key, upstream).subscribe(new TestSubscriber<>());
+
+        first.unsubscribe();
+        assertEquals(1, requests.size());
+        second.unsubscribe();
+
+        assertEquals(0, requests.size());
+        requests.coalesce(key, upstream).subscribe(new TestSubscriber<>());
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    public void sharesTheErrorAmongConcurrentSubscriptions() {
+        CacheKey key = CacheKey.of("getUser", 1);
+        TestSubscriber<String> first = new TestSubscriber<>();
+        TestSubscriber<String> second = new TestSubscriber<>();
+        requests.coalesce(key, upstream).subscribe(first);
+        requests.coalesce(key, upstream).subscribe(second);
+
+        response.onError(new IllegalStateException());
+
+        first.assertError(IllegalStateException.class);
+        second.assertError(IllegalStateException.class);
+        assertEquals(0, requests.size());
+    }
+}
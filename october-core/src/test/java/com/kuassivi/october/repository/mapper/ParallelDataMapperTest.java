@@ -0,0 +1,107 @@
+package com.kuassivi.october.repository.mapper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import rx.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelDataMapperTest {
+
+    @Test
+    public void mapsSmallCollectionsOnTheCallingThread() {
+        RecordingMapper mapper = new RecordingMapper(100, 10);
+
+        Collection<String> result = mapper.transform(range(50));
+
+        assertEquals(expected(50), new ArrayList<>(result));
+        assertEquals(Collections.singleton(Thread.currentThread()), mapper.threads);
+    }
+
+    @Test
+    public void preservesTheOrderOfLargeCollections() {
+        RecordingMapper mapper = new RecordingMapper(100, 10);
+
+        Collection<String> result = mapper.transform(range(10007));
+
+        assertEquals(expected(10007), new ArrayList<>(result));
+    }
+
+    @Test
+    public void mapsCollectionsWithoutRandomAccess() {
+        RecordingMapper mapper = new RecordingMapper(100, 10);
+
+        Collection<String> result = mapper.transform(new LinkedList<>(range(1000)));
+
+        assertEquals(expected(1000), new ArrayList<>(result));
+    }
+
+    @Test
+    public void mapsEmptyAndNullCollections() {
+        RecordingMapper mapper = new RecordingMapper(100, 10);
+
+        assertTrue(mapper.transform((Collection<Integer>) null).isEmpty());
+        assertTrue(mapper.transform(Collections.<Integer>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void rethrowsTheErrorOfAnyChunk() {
+        RecordingMapper mapper = new RecordingMapper(100, 10) {
+            @Override
+            public String transform(Integer data) {
+                if (data == 777) {
+                    throw new IllegalArgumentException("777");
+                }
+                return super.transform(data);
+            }
+        };
+
+        try {
+            mapper.transform(range(1000));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("777", e.getMessage());
+        }
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> range = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+
+    private static List<String> expected(int size) {
+        List<String> expected = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            expected.add("#" + i);
+        }
+        return expected;
+    }
+
+    private static class RecordingMapper extends ParallelDataMapper<Integer, String> {
+
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        RecordingMapper(int threshold, int chunkSize) {
+            super(Schedulers.computation(), threshold, chunkSize);
+        }
+
+        @Override
+        public String transform(Integer data) {
+            threads.add(Thread.currentThread());
+            return "#" + data;
+        }
+    }
+}
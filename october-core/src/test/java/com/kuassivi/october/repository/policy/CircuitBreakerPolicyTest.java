@@ -0,0 +1,193 @@
+package com.kuassivi.october.repository.policy;
+
+import com.kuassivi.october.exception.CircuitOpenException;
+import com.kuassivi.october.repository.policy.CircuitBreakerPolicy.State;
+import com.kuassivi.october.repository.policy.CircuitBreakerPolicy.Transition;
+import com.kuassivi.october.service.exception.NotModifiedException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Observable;
+import rx.Subscription;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+
+public class CircuitBreakerPolicyTest {
+
+    private static final String ENDPOINT = "getUser";
+
+    private TestScheduler        scheduler;
+    private CircuitBreakerPolicy policy;
+    private AtomicInteger        subscriptions;
+    private List<String>         transitions;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        policy = new CircuitBreakerPolicy(3, 1000, scheduler);
+        subscriptions = new AtomicInteger();
+        transitions = new ArrayList<>();
+        policy.observeTransitions().map(Transition::toString).subscribe(transitions::add);
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        call(failing());
+        call(failing());
+        assertEquals(State.CLOSED, policy.getState(ENDPOINT));
+        call(failing());
+        assertEquals(State.OPEN, policy.getState(ENDPOINT));
+
+        call(succeeding()).assertError(CircuitOpenException.class);
+
+        assertEquals(3, subscriptions.get());
+        assertEquals(1, transitions.size());
+        assertEquals(ENDPOINT + ": CLOSED -> OPEN", transitions.get(0));
+    }
+
+    @Test
+    public void resetsTheFailuresOnSuccess() {
+        call(failing());
+        call(failing());
+        call(succeeding());
+        call(failing());
+        call(failing());
+
+        assertEquals(State.CLOSED, policy.getState(ENDPOINT));
+    }
+
+    @Test
+    public void closesWhenTheCallLetThroughSucceeds() {
+        open();
+        scheduler.advanceTimeBy(999, TimeUnit.MILLISECONDS);
+        call(succeeding()).assertError(CircuitOpenException.class);
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        call(succeeding()).assertCompleted();
+
+        assertEquals(State.CLOSED, policy.getState(ENDPOINT));
+        assertEquals(3, transitions.size());
+        assertEquals(ENDPOINT + ": OPEN -> HALF_OPEN", transitions.get(1));
+        assertEquals(ENDPOINT + ": HALF_OPEN -> CLOSED", transitions.get(2));
+    }
+
+    @Test
+    public void opensAgainWhenTheCallLetThroughFails() {
+        open();
+        scheduler.advanceTimeBy(1000, TimeUnit.MILLISECONDS);
+        call(failing());
+
+        assertEquals(State.OPEN, policy.getState(ENDPOINT));
+        assertEquals(ENDPOINT + ": HALF_OPEN -> OPEN", transitions.get(2));
+        call(succeeding()).assertError(CircuitOpenException.class);
+    }
+
+    @Test
+    public void letsASingleCallThroughWhileHalfOpen() {
+        open();
+        scheduler.advanceTimeBy(1000, TimeUnit.MILLISECONDS);
+        int opened = subscriptions.get();
+
+        call(Observable.<String>never().doOnSubscribe(subscriptions::incrementAndGet));
+        call(succeeding()).assertError(CircuitOpenException.class);
+
+        assertEquals(State.HALF_OPEN, policy.getState(ENDPOINT));
+        assertEquals(opened + 1, subscriptions.get());
+    }
+
+    @Test
+    public void letsAnotherCallThroughWhenTheHalfOpenOneIsUnsubscribed() {
+        open();
+        scheduler.advanceTimeBy(1000, TimeUnit.MILLISECONDS);
+        Subscription pending = policy.apply(ENDPOINT, Observable.<String>never())
+                                     .subscribe(new TestSubscriber<>());
+
+        pending.unsubscribe();
+
+        assertEquals(State.OPEN, policy.getState(ENDPOINT));
+        call(succeeding()).assertCompleted();
+        assertEquals(State.CLOSED, policy.getState(ENDPOINT));
+    }
+
+    @Test
+    public void doesNotCloseWhenACallStartedBeforeOpeningSucceedsLate() {
+        TestSubscriber<String> late = call(respondingAfter(1500, "user"));
+        open();
+
+        scheduler.advanceTimeBy(1500, TimeUnit.MILLISECONDS);
+
+        late.assertValue("user");
+        assertEquals(State.OPEN, policy.getState(ENDPOINT));
+        assertEquals(1, transitions.size());
+    }
+
+    @Test
+    public void onlyTheCallLetThroughDecidesWhetherTheHalfOpenCircuitCloses() {
+        TestSubscriber<String> lateSuccess = call(respondingAfter(1500, "user"));
+        TestSubscriber<String> lateFailure = call(
+                Observable.<String>error(new IOException())
+                          .delaySubscription(1500, TimeUnit.MILLISECONDS, scheduler));
+        open();
+        scheduler.advanceTimeBy(1000, TimeUnit.MILLISECONDS);
+        TestSubscriber<String> probe = call(respondingAfter(1000, "user"));
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        lateSuccess.assertCompleted();
+        lateFailure.assertError(IOException.class);
+        assertEquals(State.HALF_OPEN, policy.getState(ENDPOINT));
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        probe.assertCompleted();
+        assertEquals(State.CLOSED, policy.getState(ENDPOINT));
+        assertEquals(ENDPOINT + ": HALF_OPEN -> CLOSED", transitions.get(2));
+    }
+
+    @Test
+    public void doesNotCountNotModifiedResponsesAsFailures() {
+        for (int i = 0; i < 5; i++) {
+            call(Observable.<String>error(new NotModifiedException("url")));
+        }
+
+        assertEquals(State.CLOSED, policy.getState(ENDPOINT));
+        assertEquals(0, transitions.size());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            call(failing());
+        }
+    }
+
+    private TestSubscriber<String> call(Observable<String> call) {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        policy.apply(ENDPOINT, call).subscribe(subscriber);
+        return subscriber;
+    }
+
+    private Observable<String> failing() {
+        return Observable.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Observable.error(new IOException());
+        });
+    }
+
+    private Observable<String> respondingAfter(long delayMillis, String response) {
+        return Observable.just(response).delay(delayMillis, TimeUnit.MILLISECONDS, scheduler);
+    }
+
+    private Observable<String> succeeding() {
+        return Observable.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Observable.just("user");
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.kuassivi.october.repository.policy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+
+public class HedgingPolicyTest {
+
+    private static final String ENDPOINT = "getUser";
+
+    private TestScheduler scheduler;
+    private AtomicInteger subscriptions;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        subscriptions = new AtomicInteger();
+    }
+
+    @Test
+    public void doesNotHedgeUntilThereAreEnoughSamples() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 20, 1, scheduler);
+        warmUp(policy, 19, 100);
+        assertEquals(-1, policy.getHedgingDelayMillis(ENDPOINT));
+        subscriptions.set(0);
+
+        call(policy, respondingAfter(1000, 10));
+        scheduler.advanceTimeBy(1000, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, subscriptions.get());
+        assertEquals(0, policy.getHedgedCount());
+    }
+
+    @Test
+    public void hedgesTheCallsSlowerThanThePercentile() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 20, 1, scheduler);
+        warmUp(policy, 20, 100);
+        assertEquals(100, policy.getHedgingDelayMillis(ENDPOINT));
+        subscriptions.set(0);
+
+        TestSubscriber<String> subscriber = call(policy, respondingAfter(1000, 10));
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        assertEquals(1, subscriptions.get());
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(2, subscriptions.get());
+        assertEquals(1, policy.getHedgedCount());
+
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+        subscriber.assertValue("response 1");
+        subscriber.assertCompleted();
+
+        // the first call has been unsubscribed
+        scheduler.advanceTimeBy(1000, TimeUnit.MILLISECONDS);
+        subscriber.assertValueCount(1);
+    }
+
+    @Test
+    public void measuresTheLatencyFromTheStartOfTheFirstCall() {
+        HedgingPolicy policy = new HedgingPolicy(0.99, 1, 1, scheduler);
+        warmUp(policy, 1, 100);
+
+        call(policy, respondingAfter(1000, 10));
+        scheduler.advanceTimeBy(1000, TimeUnit.MILLISECONDS);
+
+        // the hedged call responded 110ms after the first one was subscribed, not 10ms
+        assertEquals(110, policy.getHedgingDelayMillis(ENDPOINT));
+    }
+
+    @Test
+    public void hedgesAtMostTheGivenRatioOfTheCalls() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 1, 0.1, scheduler);
+        warmUp(policy, 1, 100);
+        subscriptions.set(0);
+
+        for (int i = 0; i < 49; i++) {
+            call(policy, Observable.<String>never()
+                                   .doOnSubscribe(subscriptions::incrementAndGet));
+        }
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        // 50 calls so far, the warm up included
+        assertEquals(5, policy.getHedgedCount());
+        assertEquals(44, policy.getSkipCount());
+        assertEquals(49 + 5, subscriptions.get());
+    }
+
+    @Test
+    public void savesABoundedNumberOfHedgedCalls() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 1, 0.1, scheduler);
+        warmUp(policy, 1, 100);
+
+        for (int i = 0; i < 499; i++) {
+            call(policy, Observable.<String>never());
+        }
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        assertEquals(10, policy.getHedgedCount());
+    }
+
+    private void warmUp(HedgingPolicy policy, int calls, long latencyMillis) {
+        for (int i = 0; i < calls; i++) {
+            call(policy, respondingAfter(latencyMillis));
+            scheduler.advanceTimeBy(latencyMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private TestSubscriber<String> call(HedgingPolicy policy, Observable<String> call) {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        policy.apply(ENDPOINT, call).subscribe(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Returns a call whose n-th subscription responds after the n-th latency.
+     */
+    private Observable<String> respondingAfter(long... latenciesMillis) {
+        final AtomicInteger attempt = new AtomicInteger();
+        return Observable.defer(() -> {
+            subscriptions.incrementAndGet();
+            int index = attempt.getAndIncrement();
+            return Observable.just("response " + index)
+                             .delay(latenciesMillis[index], TimeUnit.MILLISECONDS, scheduler);
+        });
+    }
+}
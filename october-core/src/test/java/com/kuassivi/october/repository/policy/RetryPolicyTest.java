@@ -0,0 +1,103 @@
+package com.kuassivi.october.repository.policy;
+
+import com.kuassivi.october.exception.CircuitOpenException;
+import com.kuassivi.october.service.exception.NotModifiedException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    private TestScheduler scheduler;
+    private RetryPolicy   policy;
+    private AtomicInteger subscriptions;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        policy = new RetryPolicy(2, 100, 1000, scheduler);
+        subscriptions = new AtomicInteger();
+    }
+
+    @Test
+    public void keepsTheDelaysWithinTheExponentialCeiling() {
+        for (int retry = 0; retry < 64; retry++) {
+            long ceiling = Math.min(100L << Math.min(retry, 20), 1000);
+            for (int i = 0; i < 1000; i++) {
+                long delay = policy.getDelayMillis(retry);
+                assertTrue("retry " + retry + ": " + delay, delay >= 0 && delay < ceiling);
+            }
+        }
+    }
+
+    @Test
+    public void retriesTheFailedCallAfterTheBackoff() {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        policy.apply("getUser", failing(new IOException())).subscribe(subscriber);
+        assertEquals(1, subscriptions.get());
+
+        // the first retry waits less than the base delay
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        assertTrue(subscriptions.get() >= 2);
+
+        // the second one less than twice the base delay
+        scheduler.advanceTimeBy(200, TimeUnit.MILLISECONDS);
+        assertEquals(3, subscriptions.get());
+        subscriber.assertError(IOException.class);
+        assertEquals(2, policy.getRetryCount());
+        assertEquals(1, policy.getGiveUpCount());
+    }
+
+    @Test
+    public void emitsTheResponseOfASuccessfulRetry() {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        policy.apply("getUser", Observable.defer(() -> subscriptions.incrementAndGet() == 1
+                                                        ? Observable.<String>error(
+                                                                new IOException())
+                                                        : Observable.just("user")))
+              .subscribe(subscriber);
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        subscriber.assertValue("user");
+        subscriber.assertCompleted();
+        assertEquals(0, policy.getGiveUpCount());
+    }
+
+    @Test
+    public void doesNotRetryTheErrorsThatAreNotRetryable() {
+        TestSubscriber<String> notModified = new TestSubscriber<>();
+        TestSubscriber<String> circuitOpen = new TestSubscriber<>();
+        TestSubscriber<String> illegalState = new TestSubscriber<>();
+
+        policy.apply("getUser", failing(new NotModifiedException("url"))).subscribe(notModified);
+        policy.apply("getUser", failing(new CircuitOpenException("getUser")))
+              .subscribe(circuitOpen);
+        policy.apply("getUser", failing(new IllegalStateException())).subscribe(illegalState);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(3, subscriptions.get());
+        notModified.assertError(NotModifiedException.class);
+        circuitOpen.assertError(CircuitOpenException.class);
+        illegalState.assertError(IllegalStateException.class);
+        assertEquals(0, policy.getRetryCount());
+    }
+
+    private Observable<String> failing(Throwable error) {
+        return Observable.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Observable.error(error);
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package com.kuassivi.october.rx;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import rx.observers.TestSubscriber;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetainedSubscriptionTest {
+
+    @Test
+    public void deliversTheValuesWhileAttached() {
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> target = new TestSubscriber<>();
+        RetainedSubscription.subscribe(source, target, true);
+
+        source.onNext(1);
+        source.onNext(2);
+        source.onCompleted();
+
+        target.assertValues(1, 2);
+        target.assertCompleted();
+    }
+
+    @Test
+    public void replaysOnlyTheLatestValueMissedWhileDetached() {
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> target = new TestSubscriber<>();
+        RetainedSubscription<Integer> subscription =
+                RetainedSubscription.subscribe(source, target, true);
+
+        source.onNext(1);
+        subscription.detach();
+        source.onNext(2);
+        source.onNext(3);
+        target.assertValues(1);
+
+        subscription.attach();
+
+        target.assertValues(1, 3);
+        target.assertNoTerminalEvent();
+    }
+
+    @Test
+    public void doesNotReplayWhatWasAlreadyDelivered() {
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> target = new TestSubscriber<>();
+        RetainedSubscription<Integer> subscription =
+                RetainedSubscription.subscribe(source, target, true);
+
+        source.onNext(1);
+        subscription.detach();
+        subscription.attach();
+        subscription.detach();
+        subscription.attach();
+
+        target.assertValues(1);
+    }
+
+    @Test
+    public void doesNotReplayTheTerminalEventOnceDelivered() {
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> target = new TestSubscriber<>();
+        RetainedSubscription<Integer> subscription =
+                RetainedSubscription.subscribe(source, target, true);
+
+        source.onNext(1);
+        source.onCompleted();
+        subscription.detach();
+        subscription.attach();
+
+        target.assertValues(1);
+        assertEquals(1, target.getOnCompletedEvents().size());
+    }
+
+    @Test
+    public void unsubscribesOnceTheTerminalEventIsDelivered() {
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> target = new TestSubscriber<>();
+        RetainedSubscription<Integer> subscription =
+                RetainedSubscription.subscribe(source, target, true);
+
+        source.onNext(1);
+        assertFalse(subscription.isUnsubscribed());
+        source.onCompleted();
+
+        // so the Presenter prunes it
+        assertTrue(subscription.isUnsubscribed());
+        assertTrue(target.isUnsubscribed());
+        assertFalse(source.hasObservers());
+    }
+
+    @Test
+    public void replaysTheEventsOfASourceTerminatedWhileDetached() {
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> target = new TestSubscriber<>();
+        RetainedSubscription<Integer> subscription =
+                RetainedSubscription.subscribe(source, target, false);
+
+        source.onNext(1);
+        source.onError(new IllegalStateException());
+        target.assertNoValues();
+        target.assertNoTerminalEvent();
+        assertFalse(subscription.isUnsubscribed());
+
+        subscription.attach();
+        assertTrue(subscription.isUnsubscribed());
+        subscription.detach();
+        subscription.attach();
+
+        target.assertValues(1);
+        assertEquals(1, target.getOnErrorEvents().size());
+        assertTrue(target.getOnErrorEvents().get(0) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void discardsTheMissedEventsOnceUnsubscribed() {
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> target = new TestSubscriber<>();
+        RetainedSubscription<Integer> subscription =
+                RetainedSubscription.subscribe(source, target, false);
+
+        source.onNext(1);
+        subscription.unsubscribe();
+        subscription.attach();
+
+        assertEquals(Collections.emptyList(), target.getOnNextEvents());
+        assertFalse(source.hasObservers());
+        assertTrue(subscription.isUnsubscribed());
+    }
+
+    @Test
+    public void keepsTheSourceRunningWhileDetached() {
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> target = new TestSubscriber<>();
+        RetainedSubscription<Integer> subscription =
+                RetainedSubscription.subscribe(source, target, true);
+
+        subscription.detach();
+
+        assertTrue(source.hasObservers());
+        source.onNext(1);
+        subscription.attach();
+        source.onNext(2);
+        assertEquals(Arrays.asList(1, 2), target.getOnNextEvents());
+    }
+}
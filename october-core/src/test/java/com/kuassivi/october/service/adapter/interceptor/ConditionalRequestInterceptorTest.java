@@ -0,0 +1,241 @@
+package com.kuassivi.october.service.adapter.interceptor;
+
+import com.kuassivi.october.repository.datasource.DataSourceStrategy;
+import com.kuassivi.october.service.exception.NotModifiedException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ConditionalRequestInterceptorTest {
+
+    private static final String LAST_MODIFIED = "Thu, 01 Jan 2015 00:00:00 GMT";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void doesNotRememberTheValidatorsUntilCommitted() throws Exception {
+        OkHttpClient client = client(null);
+        server.enqueue(resource("v1"));
+        server.enqueue(resource("v1"));
+
+        ConditionalRequestInterceptor.Scope scope = ConditionalRequestInterceptor.openScope();
+        assertEquals("v1", get(client));
+        // never persisted
+        scope.close();
+        scope = ConditionalRequestInterceptor.openScope();
+        assertEquals("v1", get(client));
+        scope.close();
+
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void reportsThePersistedResourceAsNotModified() throws Exception {
+        OkHttpClient client = client(null);
+        server.enqueue(resource("v1"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        ConditionalRequestInterceptor.Scope scope = ConditionalRequestInterceptor.openScope();
+        assertEquals("v1", get(client));
+        scope.commit();
+        scope.close();
+
+        scope = ConditionalRequestInterceptor.openScope();
+        try {
+            get(client);
+            fail();
+        } catch (NotModifiedException expected) {
+            assertEquals(server.url("/items").toString(), expected.getUrl());
+        } finally {
+            scope.close();
+        }
+
+        assertEquals(2, server.getRequestCount());
+        server.takeRequest();
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+        assertEquals(LAST_MODIFIED, conditional.getHeader("If-Modified-Since"));
+    }
+
+    @Test
+    public void doesNotMakeConditionalTheRequestsOutOfAScope() throws Exception {
+        OkHttpClient client = client(null);
+        server.enqueue(resource("v1"));
+        server.enqueue(resource("v1"));
+
+        ConditionalRequestInterceptor.Scope scope = ConditionalRequestInterceptor.openScope();
+        get(client);
+        scope.commit();
+        scope.close();
+        assertEquals("v1", get(client));
+
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void letsTheDiskCacheRevalidateItsOwnResponse() throws Exception {
+        OkHttpClient client = client(new Cache(folder.newFolder(), 1024 * 1024));
+        server.enqueue(resource("v1").setHeader("Cache-Control", "no-cache"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        // cached, but never persisted
+        ConditionalRequestInterceptor.Scope scope = ConditionalRequestInterceptor.openScope();
+        assertEquals("v1", get(client));
+        scope.close();
+
+        // revalidated by the disk cache, its body is persisted this time
+        scope = ConditionalRequestInterceptor.openScope();
+        assertEquals("v1", get(client));
+        scope.commit();
+        scope.close();
+
+        scope = ConditionalRequestInterceptor.openScope();
+        try {
+            get(client);
+            fail();
+        } catch (NotModifiedException expected) {
+            // the persisted response has not changed
+        } finally {
+            scope.close();
+        }
+
+        assertEquals(3, server.getRequestCount());
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void fallsBackOnceTheRequestHasBeenPersisted() {
+        OkHttpClient client = client(null);
+        DataSourceStrategy strategy = new DataSourceStrategy() {
+        };
+        server.enqueue(resource("v1"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        TestSubscriber<String> first = new TestSubscriber<>();
+        strategy.ifModified(request(client), Observable.just("persisted")).subscribe(first);
+        TestSubscriber<String> second = new TestSubscriber<>();
+        strategy.ifModified(request(client), Observable.just("persisted")).subscribe(second);
+
+        first.assertValue("v1");
+        second.assertValue("persisted");
+        second.assertCompleted();
+    }
+
+    @Test
+    public void doesNotRememberTheValidatorsOfAFailedPersist() throws Exception {
+        OkHttpClient client = client(null);
+        DataSourceStrategy strategy = new DataSourceStrategy() {
+        };
+        server.enqueue(resource("v1"));
+        server.enqueue(resource("v1"));
+
+        TestSubscriber<String> failed = new TestSubscriber<>();
+        strategy.ifModified(request(client).map(body -> {
+            throw new IllegalStateException("cannot persist " + body);
+        }), Observable.just("persisted")).subscribe(failed);
+        TestSubscriber<String> retried = new TestSubscriber<>();
+        strategy.ifModified(request(client), Observable.just("persisted")).subscribe(retried);
+
+        failed.assertError(IllegalStateException.class);
+        retried.assertValue("v1");
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void restoresTheOuterScopeOnceClosed() throws Exception {
+        OkHttpClient client = client(null);
+        server.enqueue(resource("v1"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        ConditionalRequestInterceptor.Scope outer = ConditionalRequestInterceptor.openScope();
+        ConditionalRequestInterceptor.openScope().close();
+        get(client);
+        outer.commit();
+        outer.close();
+
+        ConditionalRequestInterceptor.Scope scope = ConditionalRequestInterceptor.openScope();
+        try {
+            get(client);
+            fail();
+        } catch (NotModifiedException expected) {
+            // committed by the outer scope
+        } finally {
+            scope.close();
+        }
+    }
+
+    private OkHttpClient client(Cache cache) {
+        return new OkHttpClient.Builder()
+                .cache(cache)
+                .addInterceptor(new NotModifiedInterceptor())
+                .addNetworkInterceptor(new ConditionalRequestInterceptor())
+                .build();
+    }
+
+    private MockResponse resource(String version) {
+        return new MockResponse().setHeader("ETag", "\"" + version + "\"")
+                                 .setHeader("Last-Modified", LAST_MODIFIED)
+                                 .setBody(version);
+    }
+
+    /**
+     * Performs the request on the subscribing Thread, like the Retrofit services.
+     */
+    private Observable<String> request(OkHttpClient client) {
+        return Observable.create(subscriber -> {
+            try {
+                subscriber.onNext(get(client));
+                subscriber.onCompleted();
+            } catch (IOException e) {
+                subscriber.onError(e);
+            }
+        });
+    }
+
+    private String get(OkHttpClient client) throws IOException {
+        Response response = client.newCall(new Request.Builder()
+                                                   .url(server.url("/items"))
+                                                   .build())
+                                  .execute();
+        return response.body().string();
+    }
+}
@@ -0,0 +1,160 @@
+package com.kuassivi.october.util;
+
+import org.junit.Test;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLoggerTest {
+
+    @Test
+    public void writesTheLogsInOrderOnTheBackgroundThread() throws InterruptedException {
+        RecordingLogger recording = new RecordingLogger(3);
+        AsyncLogger logger = new AsyncLogger(recording);
+
+        logger.d("tag", "first");
+        logger.w("tag", "second");
+        logger.e("tag", "third");
+
+        assertTrue(recording.written.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first", "second", "third"), recording.messages());
+        assertEquals(Arrays.asList(Log.DEBUG, Log.WARN, Log.ERROR), recording.priorities());
+        assertEquals("october-logger", recording.threadName);
+        assertEquals(0, logger.getDroppedCount());
+    }
+
+    @Test
+    public void dropsTheLogsWhileTheBufferIsFull() throws InterruptedException {
+        RecordingLogger recording = new RecordingLogger(5);
+        // rounded up to 4
+        AsyncLogger logger = new AsyncLogger(recording, 3);
+
+        logger.i("tag", "blocking");
+        assertTrue(recording.blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            logger.i("tag", "queued " + i);
+        }
+
+        assertEquals(3, logger.getDroppedCount());
+        recording.release.countDown();
+        assertTrue(recording.written.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("blocking", "queued 0", "queued 1", "queued 2", "queued 3"),
+                     recording.messages());
+    }
+
+    @Test
+    public void keepsWritingAfterTheBufferWrapsAround() throws InterruptedException {
+        int logs = 100;
+        RecordingLogger recording = new RecordingLogger(logs);
+        AsyncLogger logger = new AsyncLogger(recording, 2);
+
+        for (int i = 0; i < logs; i++) {
+            while (true) {
+                long dropped = logger.getDroppedCount();
+                logger.v("tag", String.valueOf(i));
+                if (logger.getDroppedCount() == dropped) {
+                    break;
+                }
+                Thread.sleep(1);
+            }
+        }
+
+        assertTrue(recording.written.await(5, TimeUnit.SECONDS));
+        List<String> messages = recording.messages();
+        for (int i = 0; i < logs; i++) {
+            assertEquals(String.valueOf(i), messages.get(i));
+        }
+    }
+
+    @Test
+    public void writesTheExceptionsThroughTheLogger() throws InterruptedException {
+        RecordingLogger recording = new RecordingLogger(1);
+        AsyncLogger logger = new AsyncLogger(recording);
+        Throwable exception = new IllegalStateException();
+
+        logger.logException(exception);
+
+        assertTrue(recording.written.await(5, TimeUnit.SECONDS));
+        assertSame(exception, recording.exception);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyBuffer() {
+        new AsyncLogger(new RecordingLogger(0), 0);
+    }
+
+    /**
+     * Records the logs instead of writing them, the first one can be held until it is released.
+     */
+    private static class RecordingLogger extends DefaultLogger {
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch written;
+
+        private final List<Object[]> logs = new ArrayList<>();
+
+        volatile String    threadName;
+        volatile Throwable exception;
+
+        RecordingLogger(int expected) {
+            this.written = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void processLog(int priority, String tag, String msg, Throwable e) {
+            threadName = Thread.currentThread().getName();
+            if (msg != null && msg.equals("blocking")) {
+                blocked.countDown();
+                await(release);
+            }
+            synchronized (logs) {
+                logs.add(new Object[]{priority, msg});
+            }
+            written.countDown();
+        }
+
+        @Override
+        public void logException(Throwable thr) {
+            exception = thr;
+            written.countDown();
+        }
+
+        List<String> messages() {
+            List<String> messages = new ArrayList<>();
+            synchronized (logs) {
+                for (Object[] log : logs) {
+                    messages.add((String) log[1]);
+                }
+            }
+            return messages;
+        }
+
+        List<Integer> priorities() {
+            List<Integer> priorities = new ArrayList<>();
+            synchronized (logs) {
+                for (Object[] log : logs) {
+                    priorities.add((Integer) log[0]);
+                }
+            }
+            return priorities;
+        }
+
+        private static void await(CountDownLatch latch) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.kuassivi.october;
 
 import com.kuassivi.october.annotation.ApplicationComponent;
+import com.kuassivi.october.util.StartupTracer;
+import com.kuassivi.october.util.StartupTracer.Phase;
 
 import android.app.Application;
+import android.content.pm.ApplicationInfo;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * Main class who initialize the October Framework.
@@ -13,31 +20,140 @@ import android.app.Application;
  * <pre>
  * <code>public void onCreate() {
  *   super.onCreate();
- *   October.initialize(this);
+ *   October.initialize(this, OctoberDagger.initializer());
  * }
  * </code>
  * </pre>
+ * The generated {@code com.kuassivi.october.OctoberDagger} class is referenced directly, so no
+ * reflection is needed and code shrinkers can see it. {@link #initialize(Application)} still
+ * looks it up by reflection.
+ * <p>
+ * The time spent on every startup phase can be traced with the {@link StartupTracer}.
  */
 public class October {
 
-    private static OctoberComponent component;
+    private static volatile OctoberComponent            component;
+    private static volatile FutureTask<OctoberComponent> pendingComponent;
+    private static volatile boolean                      debuggable;
 
+    /**
+     * Initializes October looking up the generated initializer by reflection.
+     *
+     * @param application The Application annotated with @{@link ApplicationComponent}
+     */
     public static void initialize(Application application) {
-        //noinspection TryWithIdenticalCatches
+        //noinspection unchecked
+        initialize(application, findInitializer());
+    }
+
+    /**
+     * Initializes October with the generated initializer.
+     *
+     * @param application The Application annotated with @{@link ApplicationComponent}
+     * @param initializer The generated initializer, {@code OctoberDagger.initializer()}
+     * @param <T>         Type of the Application
+     */
+    public static <T extends Application> void initialize(
+            T application, OctoberComponentInitializer<T> initializer) {
+        debuggable = isDebuggable(application);
+        pendingComponent = null;
+        component = buildComponent(application, initializer);
+    }
+
+    /**
+     * Initializes October building the component graph on a background Thread.
+     * <p>
+     * The first call to {@link #getComponent()} blocks until the graph is built.
+     * <p>
+     * <b>Note:</b> The members of the Application are injected on the background Thread as well,
+     * so they cannot be used before calling {@link #getComponent()}.
+     *
+     * @param application The Application annotated with @{@link ApplicationComponent}
+     * @param initializer The generated initializer, {@code OctoberDagger.initializer()}
+     * @param <T>         Type of the Application
+     */
+    public static <T extends Application> void initializeInBackground(
+            final T application, final OctoberComponentInitializer<T> initializer) {
+        FutureTask<OctoberComponent> task =
+                new FutureTask<>(new Callable<OctoberComponent>() {
+                    @Override
+                    public OctoberComponent call() throws Exception {
+                        return buildComponent(application, initializer);
+                    }
+                });
+        debuggable = isDebuggable(application);
+        component = null;
+        pendingComponent = task;
+        Thread thread = new Thread(task, "october-initializer");
+        thread.start();
+    }
+
+    public static OctoberComponent getComponent() {
+        FutureTask<OctoberComponent> task = pendingComponent;
+        if (component == null && task != null) {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        component = task.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Cannot build the October component", e.getCause());
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * Returns whether the initialized application is debuggable.
+     * <p>
+     * The flag is read once from the {@link ApplicationInfo} of the application, since the
+     * {@code BuildConfig.DEBUG} constant of this library is always false in its release artifact.
+     *
+     * @return true if the application is debuggable, false otherwise
+     */
+    public static boolean isDebuggable() {
+        return debuggable;
+    }
+
+    private static boolean isDebuggable(Application application) {
+        return (application.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    private static OctoberComponentInitializer findInitializer() {
+        StartupTracer.Span span = StartupTracer.begin(Phase.CLASS_LOOKUP, October.class);
+        OctoberComponentInitializer initializer;
         try {
             Class<?> clazz = Class.forName(Config.PACKAGE + "." + Config.OCTOBER_DI_NAME);
-            OctoberComponentInitializer initializer =
-                    (OctoberComponentInitializer) clazz.getConstructor().newInstance();
-            //noinspection unchecked
-            component = initializer.initialize(application);
+            initializer = (OctoberComponentInitializer) clazz.getConstructor().newInstance();
         } catch (ClassNotFoundException e) {
             throw new RuntimeException("Something unexpected was happened. "
                                        + "Please, rebuild your project and try again.");
-        } catch (Exception ignored) {
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot instantiate the generated "
+                                       + Config.OCTOBER_DI_NAME + " class.", e);
+        } finally {
+            StartupTracer.end(span);
         }
+        return initializer;
     }
 
-    public static OctoberComponent getComponent() {
-        return component;
+    private static <T extends Application> OctoberComponent buildComponent(
+            T application, OctoberComponentInitializer<T> initializer) {
+        StartupTracer.Span span =
+                StartupTracer.begin(Phase.COMPONENT_BUILD, initializer.getClass());
+        try {
+            return initializer.initialize(application);
+        } finally {
+            StartupTracer.end(span);
+        }
     }
 }
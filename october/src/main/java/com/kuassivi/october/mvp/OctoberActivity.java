@@ -8,6 +8,8 @@ import com.kuassivi.october.di.module.BaseActivityModule;
 import com.kuassivi.october.mvp.contract.Presentable;
 import com.kuassivi.october.mvp.contract.Viewable;
 import com.kuassivi.october.util.MethodLooper;
+import com.kuassivi.october.util.StartupTracer;
+import com.kuassivi.october.util.StartupTracer.Phase;
 import com.trello.rxlifecycle.components.RxActivity;
 
 import android.os.Build;
@@ -18,10 +20,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.StringRes;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.AdapterView;
-
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 
 import butterknife.ButterKnife;
 import dagger.Lazy;
@@ -51,19 +49,48 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
      */
     private P presenterNoOp;
 
+    /**
+     * Identifies this Activity in the {@link PresenterStore} across configuration changes.
+     */
+    private String presenterId;
+
+    /**
+     * Whether the Presenter can be retained in the {@link PresenterStore}, only Presenters that do
+     * not depend on the Activity graph through their constructor are retained.
+     */
+    private boolean isPresenterRetainable;
+
     /**
      * Initializes Dagger injections if present, attaches this current View and delegate the {@link
      * Presentable#onCreate()} method on the presenter.
      * <p>
+     * The Presenter retained after a configuration change is attached again instead, with its
+     * members injected from the graph of this Activity, and its {@link Presentable#onCreate()}
+     * method is not called twice.
+     * <p>
      * {@inheritDoc}
      */
     @CallSuper
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        initializeViewInjector();
+        presenterId = PresenterStore.getId(this, savedInstanceState);
+        P retainedPresenter = PresenterStore.restore(presenterId);
+        initializeViewInjector(retainedPresenter);
         getPresenter().attachView(this);
-        getPresenter().onCreate();
+        if (retainedPresenter == null) {
+            getPresenter().onCreate();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @CallSuper
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        PresenterStore.saveId(presenterId, outState);
     }
 
     /**
@@ -72,7 +99,9 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
      * {@inheritDoc}
      */
     final public void setContentView(@LayoutRes int layoutResID) {
-        MethodLooper.warning(this, "setContentView");
+        if (October.isDebuggable()) {
+            MethodLooper.warning(this, "setContentView");
+        }
         super.setContentView(layoutResID);
         onViewCreated();
     }
@@ -83,7 +112,9 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
      * {@inheritDoc}
      */
     final public void setContentView(View view) {
-        MethodLooper.warning(this, "setContentView");
+        if (October.isDebuggable()) {
+            MethodLooper.warning(this, "setContentView");
+        }
         super.setContentView(view);
         onViewCreated();
     }
@@ -96,7 +127,9 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
      * {@inheritDoc}
      */
     final public void setContentView(View view, ViewGroup.LayoutParams params) {
-        MethodLooper.warning(this, "setContentView");
+        if (October.isDebuggable()) {
+            MethodLooper.warning(this, "setContentView");
+        }
         super.setContentView(view, params);
         onViewCreated();
     }
@@ -115,7 +148,9 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
     @CallSuper
     @Override
     protected void onResume() {
-        MethodLooper.warning(this, "onResume");
+        if (October.isDebuggable()) {
+            MethodLooper.warning(this, "onResume");
+        }
         super.onResume();
         getPresenter().onResume();
     }
@@ -131,58 +166,66 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
     }
 
     /**
-     * Performs some memory optimizations.
+     * Releases the Views according to the {@link #getTeardownPolicy() teardown policy}.
+     * <p>
+     * The Presenter is retained in the {@link PresenterStore} if the Activity is being recreated
+     * after a configuration change, or destroyed otherwise.
      * <p>
      * {@inheritDoc}
      */
     @CallSuper
     @Override
     protected void onDestroy() {
-        View root = getWindow().getDecorView();
-        if (root != null) {
-            unbindDrawables(root);
-        }
         ButterKnife.unbind(this);
-        getPresenter().detachView();
-        getPresenter().onDestroy();
+        P presenter = this.presenter;
+        if (presenter != null) {
+            presenter.detachView();
+            if (isChangingConfigurations() && isPresenterRetainable) {
+                PresenterStore.retain(presenterId, presenter);
+            } else {
+                PresenterStore.destroy(presenter);
+            }
+        }
         super.onDestroy();
-        System.gc();
+        getTeardownPolicy().apply(this, getWindow().peekDecorView());
     }
 
     /**
-     * Avoids consuming memory on background drawables.
+     * Returns the policy to release the Views once this Activity is destroyed.
+     * <p>
+     * Override it to use a different policy than {@link TeardownPolicy#getDefault()}.
      *
-     * @param view The current content layout View
+     * @return The teardown policy
      */
-    private void unbindDrawables(@NonNull View view) {
-        if (view.getBackground() != null) {
-            view.getBackground().setCallback(null);
-        }
-        if (view instanceof ViewGroup) {
-            for (int i = 0; i < ((ViewGroup) view).getChildCount(); i++) {
-                unbindDrawables(((ViewGroup) view).getChildAt(i));
-            }
-            if (!(view instanceof AdapterView)) {
-                try {
-                    ((ViewGroup) view).removeAllViews();
-                } catch (Exception ignored) {
-                }
-            }
-        }
+    protected TeardownPolicy getTeardownPolicy() {
+        return TeardownPolicy.getDefault();
     }
 
     /**
      * Initializes Dagger injections on the View
+     *
+     * @param retainedPresenter The Presenter retained after a configuration change, if any
      */
     private <PAI extends OctoberPresenterActivityInjectable>
-    void initializeViewInjector() {
+    void initializeViewInjector(P retainedPresenter) {
 
         OctoberComponent component = October.getComponent();
 
         if (component != null) {
 
-            component.apply(new BaseActivityModule(this));
-            component.inject(this);
+            StartupTracer.Span span = StartupTracer.begin(Phase.APPLY_MODULE, getClass());
+            try {
+                component.apply(new BaseActivityModule(this));
+            } finally {
+                StartupTracer.end(span);
+            }
+
+            span = StartupTracer.begin(Phase.INJECT, getClass());
+            try {
+                component.inject(this);
+            } finally {
+                StartupTracer.end(span);
+            }
 
             //noinspection unchecked
             PAI injector = (PAI) component.getPresenterActivityInjector();
@@ -195,19 +238,17 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
                                       ActivityComponent.class.getSimpleName()));
             }
 
-            //noinspection unchecked
-            component.getActivityComponent().inject(injector);
-
-            Class<P> viewClass;
-
+            span = StartupTracer.begin(Phase.INJECT, getClass());
             try {
+                //noinspection unchecked
+                component.getActivityComponent().inject(injector);
+            } finally {
+                StartupTracer.end(span);
+            }
 
-                Type[] types = ((ParameterizedType) getClass().getGenericSuperclass())
-                        .getActualTypeArguments();
+            Class<P> viewClass = TypeResolver.resolve(getClass());
 
-                //noinspection unchecked
-                viewClass = (Class<P>) types[0];
-            } catch (Exception ignored) {
+            if (viewClass == null) {
 
                 throw new IllegalArgumentException(
                         String.format(
@@ -217,6 +258,19 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
                                 this.getClass().getSuperclass().getSimpleName()));
             }
 
+            isPresenterRetainable = injector.isRetainable(viewClass);
+
+            if (retainedPresenter != null) {
+                span = StartupTracer.begin(Phase.INJECT, getClass());
+                try {
+                    injector.reinject(viewClass, retainedPresenter);
+                } finally {
+                    StartupTracer.end(span);
+                }
+                this.presenter = retainedPresenter;
+                return;
+            }
+
             Lazy<P> lazyPresenter = injector.get(viewClass);
 
             if (lazyPresenter == null) {
@@ -228,7 +282,12 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
                                       ActivityComponent.class.getSimpleName()));
             }
 
-            this.presenter = lazyPresenter.get();
+            span = StartupTracer.begin(Phase.PRESENTER_GET, getClass());
+            try {
+                this.presenter = lazyPresenter.get();
+            } finally {
+                StartupTracer.end(span);
+            }
         }
     }
 
@@ -340,14 +399,8 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
     final public P getPresenter() {
         if (this.presenter == null) {
             if (this.presenterNoOp == null) {
-                try {
-                    Type[] types =
-                            ((ParameterizedType) getClass().getGenericSuperclass())
-                                    .getActualTypeArguments();
-                    //noinspection unchecked
-                    Class<P> viewClass = (Class<P>) types[0];
-                    this.presenterNoOp = NoOp.of(viewClass);
-                } catch (Exception ignored) {
+                Class<P> viewClass = TypeResolver.resolve(getClass());
+                if (viewClass == null) {
                     throw new IllegalArgumentException(
                             String.format(
                                     "Invalid or missing presenter parameter type in "
@@ -355,6 +408,7 @@ public abstract class OctoberActivity<P extends Presentable> extends RxActivity
                                     this.getClass().getSimpleName(),
                                     this.getClass().getSuperclass().getSimpleName()));
                 }
+                this.presenterNoOp = NoOp.of(viewClass);
             }
             return this.presenterNoOp;
         }
@@ -8,6 +8,8 @@ import com.kuassivi.october.di.module.BaseFragmentModule;
 import com.kuassivi.october.mvp.contract.Presentable;
 import com.kuassivi.october.mvp.contract.Viewable;
 import com.kuassivi.october.util.MethodLooper;
+import com.kuassivi.october.util.StartupTracer;
+import com.kuassivi.october.util.StartupTracer.Phase;
 import com.trello.rxlifecycle.components.support.RxFragment;
 
 import android.os.Bundle;
@@ -21,9 +23,6 @@ import android.view.ViewGroup;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
 
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
-
 import butterknife.ButterKnife;
 import dagger.Lazy;
 
@@ -52,6 +51,25 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
      */
     private P presenterNoOp;
 
+    /**
+     * Presenter created or restored for this Fragment.
+     * <p>
+     * It outlives the View of the Fragment, that detaches the current Presenter when it is
+     * destroyed.
+     */
+    private P ownPresenter;
+
+    /**
+     * Identifies this Fragment in the {@link PresenterStore} across configuration changes.
+     */
+    private String presenterId;
+
+    /**
+     * Whether the Presenter can be retained in the {@link PresenterStore}, only Presenters that do
+     * not depend on the Activity or Fragment graph through their constructor are retained.
+     */
+    private boolean isPresenterRetainable;
+
     /**
      * This flag indicates if the fragment is in a transition or animation.
      * <p>
@@ -78,14 +96,33 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
      * <b>Caution:</b> The {@link Presentable#onCreate()} method of the Presenter does not have a
      * reference of the View yet.
      * <p>
+     * The Presenter retained after a configuration change is restored instead, with its members
+     * injected from the graph of this Fragment, and its {@link Presentable#onCreate()} method is
+     * not called twice.
+     * <p>
      * {@inheritDoc}
      */
     @CallSuper
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        initializeViewInjector();
-        getPresenter().onCreate();
+        presenterId = PresenterStore.getId(this, savedInstanceState);
+        P retainedPresenter = PresenterStore.restore(presenterId);
+        initializeViewInjector(retainedPresenter);
+        ownPresenter = this.presenter;
+        if (retainedPresenter == null) {
+            getPresenter().onCreate();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @CallSuper
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        PresenterStore.saveId(presenterId, outState);
     }
 
     /**
@@ -97,9 +134,14 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
      */
     @Override
     public void onViewCreated(View view, @Nullable Bundle savedInstanceState) {
-        MethodLooper.warning(this, "onViewCreated");
+        if (October.isDebuggable()) {
+            MethodLooper.warning(this, "onViewCreated");
+        }
         super.onViewCreated(view, savedInstanceState);
         ButterKnife.bind(this, view);
+        if (this.presenter == null && ownPresenter != null) {
+            attachPresenter(ownPresenter);
+        }
         getPresenter().attachView(this);
         getPresenter().onViewCreated();
     }
@@ -110,7 +152,9 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
     @CallSuper
     @Override
     public void onResume() {
-        MethodLooper.warning(this, "onResume");
+        if (October.isDebuggable()) {
+            MethodLooper.warning(this, "onResume");
+        }
         super.onResume();
         getPresenter().onResume();
     }
@@ -139,27 +183,52 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
     }
 
     /**
+     * Retains the Presenter in the {@link PresenterStore} if the Fragment is being recreated after
+     * a configuration change, or destroys it otherwise.
+     * <p>
      * {@inheritDoc}
      */
     @CallSuper
     @Override
     public void onDestroy() {
-        getPresenter().onDestroy();
+        P presenter = ownPresenter;
+        ownPresenter = null;
+        if (presenter != null) {
+            if (isPresenterRetainable
+                && getActivity() != null && getActivity().isChangingConfigurations()) {
+                PresenterStore.retain(presenterId, presenter);
+            } else {
+                PresenterStore.destroy(presenter);
+            }
+        }
         super.onDestroy();
     }
 
     /**
      * Initializes Dagger injections on the View.
+     *
+     * @param retainedPresenter The Presenter retained after a configuration change, if any
      */
     private <PFI extends OctoberPresenterFragmentInjectable>
-    void initializeViewInjector() {
+    void initializeViewInjector(P retainedPresenter) {
 
         OctoberComponent component = October.getComponent();
 
         if (component != null) {
 
-            component.apply(new BaseFragmentModule(this));
-            component.inject(this);
+            StartupTracer.Span span = StartupTracer.begin(Phase.APPLY_MODULE, getClass());
+            try {
+                component.apply(new BaseFragmentModule(this));
+            } finally {
+                StartupTracer.end(span);
+            }
+
+            span = StartupTracer.begin(Phase.INJECT, getClass());
+            try {
+                component.inject(this);
+            } finally {
+                StartupTracer.end(span);
+            }
 
             //noinspection unchecked
             PFI injector = (PFI) component.getPresenterFragmentInjector();
@@ -172,21 +241,17 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
                                       FragmentComponent.class.getSimpleName()));
             }
 
-            //noinspection unchecked
-            component.getFragmentComponent().inject(injector);
-
-            Class<P> viewClass;
-
+            span = StartupTracer.begin(Phase.INJECT, getClass());
             try {
-
-                Type[] types =
-                        ((ParameterizedType) getClass().getGenericSuperclass())
-                                .getActualTypeArguments();
-
                 //noinspection unchecked
-                viewClass = (Class<P>) types[0];
+                component.getFragmentComponent().inject(injector);
+            } finally {
+                StartupTracer.end(span);
+            }
+
+            Class<P> viewClass = TypeResolver.resolve(getClass());
 
-            } catch (Exception ignored) {
+            if (viewClass == null) {
 
                 throw new IllegalArgumentException(
                         String.format(
@@ -196,6 +261,19 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
                                 this.getClass().getSuperclass().getSimpleName()));
             }
 
+            isPresenterRetainable = injector.isRetainable(viewClass);
+
+            if (retainedPresenter != null) {
+                span = StartupTracer.begin(Phase.INJECT, getClass());
+                try {
+                    injector.reinject(viewClass, retainedPresenter);
+                } finally {
+                    StartupTracer.end(span);
+                }
+                this.presenter = retainedPresenter;
+                return;
+            }
+
             Lazy<P> lazyPresenter = injector.get(viewClass);
 
             if (lazyPresenter == null) {
@@ -207,7 +285,12 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
                                       FragmentComponent.class.getSimpleName()));
             }
 
-            this.presenter = lazyPresenter.get();
+            span = StartupTracer.begin(Phase.PRESENTER_GET, getClass());
+            try {
+                this.presenter = lazyPresenter.get();
+            } finally {
+                StartupTracer.end(span);
+            }
         }
     }
 
@@ -404,14 +487,8 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
     final public P getPresenter() {
         if (this.presenter == null) {
             if (this.presenterNoOp == null) {
-                try {
-                    Type[] types =
-                            ((ParameterizedType) getClass().getGenericSuperclass())
-                                    .getActualTypeArguments();
-                    //noinspection unchecked
-                    Class<P> viewClass = (Class<P>) types[0];
-                    this.presenterNoOp = NoOp.of(viewClass);
-                } catch (Exception ignored) {
+                Class<P> viewClass = TypeResolver.resolve(getClass());
+                if (viewClass == null) {
                     throw new IllegalArgumentException(
                             String.format(
                                     "Invalid or missing presenter parameter type in "
@@ -419,6 +496,7 @@ public abstract class OctoberFragment<P extends Presentable> extends RxFragment
                                     this.getClass().getSimpleName(),
                                     this.getClass().getSuperclass().getSimpleName()));
                 }
+                this.presenterNoOp = NoOp.of(viewClass);
             }
             return this.presenterNoOp;
         }
@@ -1,17 +1,28 @@
 package com.kuassivi.october.mvp;
 
+import com.kuassivi.october.interactor.UseCase;
 import com.kuassivi.october.mvp.contract.Presentable;
 import com.kuassivi.october.mvp.contract.Viewable;
+import com.kuassivi.october.rx.RetainedSubscription;
 
 import android.support.annotation.NonNull;
 
 import java.lang.ref.WeakReference;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
 
 /**
  * Base class for all Presenters that has access to the View reference.
  * <p>
+ * The Presenter is retained by the {@link PresenterStore} while its View is recreated after a
+ * configuration change. Subscribe your Use Cases through {@link #subscribe(UseCase,
+ * Subscriber)} to keep them running meanwhile, and to replay their latest result on the new View.
+ * <p>
  * {@inheritDoc}
  *
  * @param <V> The Viewable interface reference
@@ -29,6 +40,16 @@ public abstract class OctoberPresenter<V extends Viewable>
      */
     private OnAttachListener<Presentable> listener;
 
+    /**
+     * The {@link NoOp} View returned once the View reference has been cleared.
+     */
+    private V noOpView;
+
+    /**
+     * Subscriptions that survive the recreation of the View.
+     */
+    private final List<RetainedSubscription<?>> retainedSubscriptions = new ArrayList<>();
+
     /**
      * {@inheritDoc}
      */
@@ -50,6 +71,10 @@ public abstract class OctoberPresenter<V extends Viewable>
         this.listener = (OnAttachListener<Presentable>) viewable;
         //noinspection unchecked
         this.viewRef = new WeakReference<V>((V) viewable);
+        // the replayed results might subscribe again
+        for (RetainedSubscription<?> subscription : new ArrayList<>(retainedSubscriptions)) {
+            subscription.attach();
+        }
     }
 
     /**
@@ -57,6 +82,10 @@ public abstract class OctoberPresenter<V extends Viewable>
      */
     @Override
     final public void detachView() {
+        pruneSubscriptions();
+        for (RetainedSubscription<?> subscription : retainedSubscriptions) {
+            subscription.detach();
+        }
         if (this.viewRef != null) {
             this.viewRef.clear();
         }
@@ -100,24 +129,89 @@ public abstract class OctoberPresenter<V extends Viewable>
                                            + "Have you called attachView()?");
         }
 
-        if (this.viewRef.get() == null) {
-            try {
-                Type[] types = ((ParameterizedType) getClass().getGenericSuperclass())
-                                .getActualTypeArguments();
-                //noinspection unchecked
-                Class<V> viewClass = (Class<V>) types[0];
-                return NoOp.of(viewClass);
-            } catch (Exception ignored) {
-                throw new IllegalArgumentException(
-                        String.format(
-                                "Invalid or missing view parameter type in "
-                                + "(%s extends %s<V>), <V> must be a Viewable Interface.",
-                                this.getClass().getSimpleName(),
-                                this.getClass().getSuperclass().getSimpleName()));
+        V view = this.viewRef.get();
+        if (view == null) {
+            if (this.noOpView == null) {
+                Class<V> viewClass = TypeResolver.resolve(getClass());
+                if (viewClass == null) {
+                    throw new IllegalArgumentException(
+                            String.format(
+                                    "Invalid or missing view parameter type in "
+                                    + "(%s extends %s<V>), <V> must be a Viewable Interface.",
+                                    this.getClass().getSimpleName(),
+                                    this.getClass().getSuperclass().getSimpleName()));
+                }
+                this.noOpView = NoOp.of(viewClass);
+            }
+            return this.noOpView;
+        }
+
+        return view;
+    }
+
+    /**
+     * Subscribes to the given Use Case until this Presenter is destroyed.
+     * <p>
+     * The Use Case keeps running while the View is being recreated after a configuration change,
+     * and its latest result is delivered again to the subscriber once the new View is attached.
+     * <p>
+     * <b>Usage:</b>
+     * <pre>
+     * <code>public void onCreate() {
+     *   subscribe(getItemsUseCase, OctoberSubscriber.onNext(items -&gt; getView().show(items)));
+     * }
+     * </code>
+     * </pre>
+     *
+     * @param useCase    The Use Case
+     * @param subscriber The subscriber, it must access the View through {@link #getView()}
+     * @param <T>        Type of the result
+     * @return The subscription, unsubscribe it to cancel the Use Case earlier
+     */
+    final protected <T> Subscription subscribe(UseCase<T> useCase, Subscriber<T> subscriber) {
+        return subscribe(useCase.asObservable(), subscriber);
+    }
+
+    /**
+     * Subscribes to the given Observable until this Presenter is destroyed.
+     *
+     * @param observable The Observable
+     * @param subscriber The subscriber, it must access the View through {@link #getView()}
+     * @param <T>        Type of the values
+     * @return The subscription, unsubscribe it to cancel the Observable earlier
+     * @see #subscribe(UseCase, Subscriber)
+     */
+    final protected <T> Subscription subscribe(Observable<T> observable,
+                                               Subscriber<T> subscriber) {
+        pruneSubscriptions();
+        boolean attached = this.viewRef != null && this.viewRef.get() != null;
+        RetainedSubscription<T> subscription =
+                RetainedSubscription.subscribe(observable, subscriber, attached);
+        retainedSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Forgets the subscriptions that have been unsubscribed or whose View has already received
+     * their terminal event, so a retained Presenter does not keep their results.
+     */
+    private void pruneSubscriptions() {
+        Iterator<RetainedSubscription<?>> iterator = retainedSubscriptions.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isUnsubscribed()) {
+                iterator.remove();
             }
         }
+    }
 
-        return this.viewRef.get();
+    /**
+     * Unsubscribes every subscription made through {@link #subscribe(Observable, Subscriber)}.
+     */
+    void releaseSubscriptions() {
+        for (RetainedSubscription<?> subscription : retainedSubscriptions) {
+            subscription.unsubscribe();
+        }
+        retainedSubscriptions.clear();
     }
 
     /**
@@ -128,4 +222,3 @@ public abstract class OctoberPresenter<V extends Viewable>
         // no-op by default
     }
 }
-
@@ -0,0 +1,171 @@
+package com.kuassivi.october.mvp;
+
+import com.kuassivi.october.mvp.contract.Presentable;
+import com.kuassivi.october.repository.cache.MemoryCache;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the Presenters of the Activities and Fragments that are being recreated after a
+ * configuration change, so the new instance gets the same Presenter instead of a new one.
+ * <p>
+ * Every View is identified by an id saved into its instance state. When a View is destroyed
+ * because of a configuration change its Presenter is retained under that id, without calling
+ * {@link Presentable#onDestroy()}, until the new View restores it.
+ * <p>
+ * The store is bounded to {@link #MAX_RETAINED_PRESENTERS} Presenters. Presenters that are not
+ * restored within {@link #ABANDONED_TIMEOUT_MILLIS}, or that are evicted to make room for new
+ * ones, are destroyed. Abandoned Presenters are looked for on the main Thread once the timeout
+ * elapses, so they do not wait for the next View to be recreated.
+ * <p>
+ * Only Presenters that do not hold the Activity or Fragment graph are retained, see
+ * {@link com.kuassivi.october.di.OctoberPresenterAbstractInjector#isRetainable(Class)}.
+ */
+public final class PresenterStore {
+
+    /**
+     * Max number of retained Presenters.
+     */
+    public static final int MAX_RETAINED_PRESENTERS = 16;
+
+    /**
+     * Time after which a retained Presenter that has not been restored is considered abandoned.
+     */
+    public static final long ABANDONED_TIMEOUT_MILLIS = 10000;
+
+    private static final String KEY_PRESENTER_ID = "october:presenter_id";
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private static final MemoryCache<String, Retained> RETAINED =
+            new MemoryCache<String, Retained>(MAX_RETAINED_PRESENTERS) {
+                @Override
+                protected void entryEvicted(String key, Retained value) {
+                    destroy(value.presenter);
+                }
+            };
+
+    private static final Handler HANDLER = new Handler(Looper.getMainLooper());
+
+    private static final Runnable EVICT_ABANDONED = new Runnable() {
+        @Override
+        public void run() {
+            evictAbandoned();
+        }
+    };
+
+    private PresenterStore() {
+        // no instances
+    }
+
+    /**
+     * Returns the id of a View, restoring it from its saved state if exists.
+     *
+     * @param view               The Activity or Fragment
+     * @param savedInstanceState The saved state of the View
+     * @return The id of the View
+     */
+    static String getId(Object view, @Nullable Bundle savedInstanceState) {
+        String id = savedInstanceState != null
+                    ? savedInstanceState.getString(KEY_PRESENTER_ID)
+                    : null;
+        return id != null
+               ? id
+               : view.getClass().getName() + '#' + IDS.incrementAndGet();
+    }
+
+    /**
+     * Saves the id of a View into its instance state.
+     */
+    static void saveId(String id, Bundle outState) {
+        outState.putString(KEY_PRESENTER_ID, id);
+    }
+
+    /**
+     * Retains the Presenter of a View that is being recreated.
+     *
+     * @param id        The id of the View
+     * @param presenter The Presenter, already detached from the View
+     */
+    static void retain(String id, Presentable presenter) {
+        evictAbandoned();
+        RETAINED.put(id, new Retained(presenter));
+        HANDLER.postDelayed(EVICT_ABANDONED, ABANDONED_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Restores the Presenter retained for a View.
+     *
+     * @param id  The id of the View
+     * @param <P> Type of the Presenter
+     * @return The retained Presenter, or null if there is none
+     */
+    @Nullable
+    static <P extends Presentable> P restore(String id) {
+        evictAbandoned();
+        Retained retained = RETAINED.remove(id);
+        if (RETAINED.size() == 0) {
+            HANDLER.removeCallbacks(EVICT_ABANDONED);
+        }
+        //noinspection unchecked
+        return retained != null
+               ? (P) retained.presenter
+               : null;
+    }
+
+    /**
+     * Destroys a Presenter that is no longer used by its View.
+     *
+     * @param presenter The Presenter, already detached from the View
+     */
+    static void destroy(Presentable presenter) {
+        presenter.onDestroy();
+        if (presenter instanceof OctoberPresenter) {
+            ((OctoberPresenter) presenter).releaseSubscriptions();
+        }
+    }
+
+    /**
+     * Destroys every retained Presenter.
+     */
+    public static void clear() {
+        HANDLER.removeCallbacks(EVICT_ABANDONED);
+        for (String id : RETAINED.keys()) {
+            Retained retained = RETAINED.remove(id);
+            if (retained != null) {
+                destroy(retained.presenter);
+            }
+        }
+    }
+
+    private static void evictAbandoned() {
+        long now = SystemClock.elapsedRealtime();
+        for (String id : RETAINED.keys()) {
+            Retained retained = RETAINED.get(id);
+            if (retained != null && now - retained.retainedAt >= ABANDONED_TIMEOUT_MILLIS
+                && RETAINED.remove(id) != null) {
+                destroy(retained.presenter);
+            }
+        }
+    }
+
+    /**
+     * A retained Presenter.
+     */
+    private static class Retained {
+
+        final Presentable presenter;
+        final long        retainedAt;
+
+        Retained(Presentable presenter) {
+            this.presenter = presenter;
+            this.retainedAt = SystemClock.elapsedRealtime();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.kuassivi.october.mvp;
+
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+
+/**
+ * Policy to release the Views of an Activity once it has been destroyed.
+ * <p>
+ * None of them forces a garbage collection nor blocks the main Thread walking the whole View
+ * hierarchy. The default policy is {@link #DEFERRED}.
+ * <p>
+ * <b>Usage:</b> Change the default policy when the Application is created:
+ * <pre>
+ * <code>TeardownPolicy.setDefault(BuildConfig.DEBUG
+ *                            ? TeardownPolicy.LEAK_DETECTION
+ *                            : TeardownPolicy.DEFERRED);
+ * </code>
+ * </pre>
+ * Or override {@code getTeardownPolicy()} on a specific Activity.
+ */
+public enum TeardownPolicy {
+
+    /**
+     * Does nothing, the Views are released along with the Activity.
+     */
+    NONE {
+        @Override
+        void apply(Object owner, @Nullable View root) {
+            // no-op
+        }
+    },
+
+    /**
+     * Clears the callbacks of the background drawables while the main Thread is idle, a few Views
+     * at a time, so the drawables shared with other Activities do not keep the destroyed ones.
+     */
+    DEFERRED {
+        @Override
+        void apply(Object owner, @Nullable View root) {
+            if (root != null) {
+                Looper.myQueue().addIdleHandler(new DrawableCleanup(root));
+            }
+        }
+    },
+
+    /**
+     * Does not release anything, but warns if the Activity is still reachable
+     * {@link #LEAK_CHECK_DELAY_MILLIS} after being destroyed.
+     * <p>
+     * No garbage collection is forced, so a warning means a possible leak that should be confirmed
+     * with a heap dump.
+     */
+    LEAK_DETECTION {
+        @Override
+        void apply(Object owner, @Nullable View root) {
+            final WeakReference<Object> ownerRef = new WeakReference<>(owner);
+            final String ownerName = owner.getClass().getName();
+            final Handler handler = new Handler(Looper.getMainLooper());
+            Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                @Override
+                public boolean queueIdle() {
+                    handler.postDelayed(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (ownerRef.get() != null) {
+                                Log.w("[October]",
+                                      String.format("%s is still reachable %d ms after being "
+                                                    + "destroyed, it might be leaked.",
+                                                    ownerName, LEAK_CHECK_DELAY_MILLIS));
+                            }
+                        }
+                    }, LEAK_CHECK_DELAY_MILLIS);
+                    return false;
+                }
+            });
+        }
+    };
+
+    /**
+     * Time the {@link #LEAK_DETECTION} policy waits before checking if the Activity is reachable.
+     */
+    public static final long LEAK_CHECK_DELAY_MILLIS = 10000;
+
+    private static volatile TeardownPolicy defaultPolicy = DEFERRED;
+
+    public static TeardownPolicy getDefault() {
+        return defaultPolicy;
+    }
+
+    public static void setDefault(TeardownPolicy policy) {
+        if (policy == null) {
+            throw new NullPointerException("policy == null");
+        }
+        defaultPolicy = policy;
+    }
+
+    /**
+     * Applies the policy on a destroyed Activity.
+     *
+     * @param owner The destroyed Activity
+     * @param root  The root of its View hierarchy, if any
+     */
+    abstract void apply(Object owner, @Nullable View root);
+
+    /**
+     * Clears the callbacks of the background drawables of a View hierarchy, a few Views on every
+     * idle time of the main Thread.
+     */
+    private static final class DrawableCleanup implements MessageQueue.IdleHandler {
+
+        private static final int VIEWS_PER_IDLE = 32;
+
+        private final ArrayDeque<View> pending = new ArrayDeque<>();
+
+        DrawableCleanup(View root) {
+            pending.add(root);
+        }
+
+        @Override
+        public boolean queueIdle() {
+            for (int i = 0; i < VIEWS_PER_IDLE && !pending.isEmpty(); i++) {
+                View view = pending.poll();
+                Drawable background = view.getBackground();
+                if (background != null) {
+                    background.setCallback(null);
+                }
+                if (view instanceof ViewGroup) {
+                    ViewGroup group = (ViewGroup) view;
+                    for (int child = 0; child < group.getChildCount(); child++) {
+                        pending.add(group.getChildAt(child));
+                    }
+                }
+            }
+            // keeps the handler registered until every View has been cleaned
+            return !pending.isEmpty();
+        }
+    }
+}
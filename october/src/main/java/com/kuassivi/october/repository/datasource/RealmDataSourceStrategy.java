@@ -1,18 +1,30 @@
 package com.kuassivi.october.repository.datasource;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.realm.Realm;
 import io.realm.RealmObject;
 import rx.Observable;
+import rx.Subscriber;
 import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func0;
 
 /**
  * {@link Realm} specific DataSource strategy class that starts and closes a {@link Realm} instance
- * in the same {@link Thread} when an {@link Observable} is subscribed.
+ * in the same {@link Thread} when an {@link Observable} is subscribed, sharing it among the
+ * subscriptions of that Thread.
  * <p>
  * It also provides an utility method to create, update and/or clear specific {@link Realm} objects
- * <b>synchronously</b> through the {@link #createOrUpdate(Object, Class[])} method.
+ * <b>synchronously</b> through the {@link #createOrUpdate(Object, Class[])} method, or straight
+ * from a JSON stream through the {@link #createOrUpdateFromJson(Class, InputStream, Class[])}
+ * method.
  * <p>
  * <b>Note:</b> Whenever you inherits from this class and planning to work with the current {@link
  * Realm} instance, you must {@link #delegate(Observable)} your upstream {@link Observable}.
@@ -20,53 +32,56 @@ import rx.functions.Action0;
 abstract class RealmDataSourceStrategy extends DataSourceStrategy {
 
     /**
-     * We cannot Inject {@link Realm} with dagger, due to the access thread confinement.
+     * Retains the {@link Realm} instance of the subscribing {@link Thread} and releases it once
+     * the {@link Observable} terminates or is unsubscribed.
      * <p>
-     * Let {@link #startRealm} to instantiate {@link Realm} in each subscription.
-     */
-    private Realm realm;
-
-    /**
-     * Starts the {@link Realm} instance when the {@link Observable} subscribes.
-     */
-    private final Action0 startRealm = new Action0() {
-        @Override
-        public void call() {
-            if (realm == null || realm.isClosed()) {
-                realm = Realm.getDefaultInstance();
-                realm.refresh(); // Fix
-            }
-        }
-    };
-
-    /**
-     * Closes the {@link Realm} instance when the {@link Observable} terminates.
+     * We cannot Inject {@link Realm} with dagger, due to the access thread confinement, so the
+     * instance is shared among the subscriptions of the same Thread through a {@link
+     * ThreadConfinedRealm} handle.
+     * <p>
+     * A Thread without a Looper, i.e. a worker of {@code Schedulers.io()}, cannot be called back
+     * to close its instance, and cannot emit anything else once the subscription returns, so the
+     * instance is released on it right then.
+     * <p>
+     * {@inheritDoc}
      */
-    private final Action0 stopRealm = new Action0() {
-        @Override
-        public void call() {
-            if (realm != null && !realm.isClosed()) {
-                realm.close();
-                realm = null;
+    @Override
+    <T> Observable<T> compose(final Observable<T> observable) {
+        return Observable.create(new Observable.OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> subscriber) {
+                final ThreadConfinedRealm handle = ThreadConfinedRealm.acquire();
+                final AtomicBoolean isReleased = new AtomicBoolean();
+                Action0 release = new Action0() {
+                    @Override
+                    public void call() {
+                        if (isReleased.compareAndSet(false, true)) {
+                            handle.release();
+                        }
+                    }
+                };
+                try {
+                    observable.doOnTerminate(release)
+                              .doOnUnsubscribe(release)
+                              .unsafeSubscribe(subscriber);
+                } finally {
+                    if (!handle.hasLooper()) {
+                        release.call();
+                    }
+                }
             }
-        }
-    };
+        });
+    }
 
     /**
-     * Manages the {@link Realm} instance.
+     * The {@link Realm} objects emitted by a call cannot be handed to the subscribers of other
+     * Threads, so concurrent calls are never coalesced.
      * <p>
      * {@inheritDoc}
      */
     @Override
-    <T> Observable<T> compose(Observable<T> observable) {
-        return observable.compose(new Observable.Transformer<T, T>() {
-            @Override
-            public Observable<T> call(Observable<T> tObservable) {
-                return tObservable
-                        .doOnSubscribe(startRealm)
-                        .doOnTerminate(stopRealm);
-            }
-        });
+    boolean isCoalescable() {
+        return false;
     }
 
     /**
@@ -85,35 +100,179 @@ abstract class RealmDataSourceStrategy extends DataSourceStrategy {
     final public <T, B extends RealmObject> void createOrUpdate(T entity,
                                                                 Class<B>... clearFirst) {
         if (entity != null) {
-            this.realm.executeTransaction(
+            getRealm().executeTransaction(
                     new Realm.Transaction() {
                         @Override
                         public void execute(Realm realmInstance) {
-                            if (clearFirst != null
-                                && clearFirst.length > 0
-                                && RealmDataSourceStrategy.this.isAbleToClear(entity)) {
-                                for (Class<B> clazz : clearFirst) {
-                                    realmInstance.clear(clazz);
-                                }
-                            }
-                            if (entity instanceof RealmObject) {
-                                realmInstance.copyToRealmOrUpdate((RealmObject) entity);
-                            } else if (RealmDataSourceStrategy.this.hasCollectionItems(entity)) {
-                                realmInstance.copyToRealmOrUpdate((Collection) entity);
-                            }
+                            write(realmInstance, entity, clearFirst);
                         }
                     });
         }
     }
 
+    /**
+     * Stores every object of a JSON stream <b>synchronously</b> as it is read, in a single
+     * transaction.
+     * <p>
+     * The stream is never decoded into entities, so the memory needed does not depend on its size.
+     * <p>
+     * If the parameter is passed, it will clear all data of the specified {@link RealmObject}
+     * classes before storing the objects.
+     *
+     * @param clazz      The {@link RealmObject} class, it must have a primary key
+     * @param json       UTF-8 JSON stream of an array of objects or a single object, it is not
+     *                   closed
+     * @param clearFirst Optional {@link RealmObject}s to be cleared
+     * @param <E>        {@link RealmObject}
+     * @param <B>        {@link RealmObject}
+     * @return The number of objects created or updated
+     * @throws IOException if the stream cannot be read, then nothing is stored
+     * @see RealmJsonConverterFactory
+     */
+    @SafeVarargs
+    final public <E extends RealmObject, B extends RealmObject> int createOrUpdateFromJson(
+            Class<E> clazz, InputStream json, Class<B>... clearFirst) throws IOException {
+        return createOrUpdateFromJson(getRealm(), clazz,
+                                      new InputStreamReader(json, "UTF-8"), clearFirst);
+    }
+
+    /**
+     * Stores every object of a JSON stream in a new transaction of the given {@link Realm}.
+     *
+     * @param realm      {@link Realm} instance that is not in a transaction
+     * @param clazz      The {@link RealmObject} class, it must have a primary key
+     * @param json       JSON stream of an array of objects or a single object, it is not closed
+     * @param clearFirst Optional {@link RealmObject}s to be cleared
+     * @return The number of objects created or updated
+     * @throws IOException if the stream cannot be read, then the transaction is cancelled
+     */
+    static int createOrUpdateFromJson(Realm realm, Class<? extends RealmObject> clazz,
+                                      Reader json, Class<? extends RealmObject>[] clearFirst)
+            throws IOException {
+        boolean isCommitted = false;
+        realm.beginTransaction();
+        try {
+            if (clearFirst != null) {
+                for (Class<? extends RealmObject> clear : clearFirst) {
+                    realm.clear(clear);
+                }
+            }
+            int count = RealmJsonStream.createOrUpdateAll(realm, clazz, json);
+            realm.commitTransaction();
+            isCommitted = true;
+            return count;
+        } finally {
+            if (!isCommitted) {
+                realm.cancelTransaction();
+            }
+        }
+    }
+
+    /**
+     * Stores every chunk of a stream as it arrives, so the whole result set is never held in
+     * memory at once.
+     * <p>
+     * If the parameter is passed, it will clear all data of the specified {@link RealmObject}
+     * classes only before storing the first chunk.
+     * <p>
+     * <b>Note:</b> You must apply this Transformer before you {@link #delegate(Observable)} the
+     * {@link Observable}, so that the chunks are stored with the current {@link Realm} instance.
+     * <pre>
+     * <code>return delegate(paginate(pageLoader).compose(createOrUpdateChunks()));
+     * </code>
+     * </pre>
+     *
+     * @param clearFirst Optional {@link RealmObject}s to be cleared
+     * @param <T>        {@link RealmObject}
+     * @param <B>        {@link RealmObject}
+     * @return The Transformer that stores every chunk
+     * @see #paginate(rx.functions.Func1)
+     */
+    @SafeVarargs
+    final public <T extends RealmObject, B extends RealmObject>
+    Observable.Transformer<List<T>, List<T>> createOrUpdateChunks(final Class<B>... clearFirst) {
+        return new Observable.Transformer<List<T>, List<T>>() {
+            @Override
+            public Observable<List<T>> call(final Observable<List<T>> chunks) {
+                return Observable.defer(new Func0<Observable<List<T>>>() {
+                    @Override
+                    public Observable<List<T>> call() {
+                        final AtomicBoolean isFirstChunk = new AtomicBoolean(true);
+                        return chunks.doOnNext(new Action1<List<T>>() {
+                            @Override
+                            public void call(List<T> chunk) {
+                                if (isFirstChunk.compareAndSet(true, false)) {
+                                    createOrUpdate(chunk, clearFirst);
+                                } else {
+                                    createOrUpdate(chunk);
+                                }
+                            }
+                        });
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Entity to be stored <b>asynchronously</b> through the shared {@link RealmWriteBuffer}, so
+     * that it is committed in a single transaction together with other pending writes.
+     * <p>
+     * If second parameter is passed, it will clear all data of the specified {@link RealmObject}
+     * class before storing this entity.
+     *
+     * @param entity     {@link RealmObject} or {@link io.realm.RealmList}
+     * @param clearFirst Optional {@link RealmObject}s to be cleared
+     * @param <T>        {@link RealmObject} or {@link io.realm.RealmList}
+     * @param <B>        {@link RealmObject}
+     * @return An Observable that completes when the entity has been committed
+     * @see #flush()
+     */
+    @SafeVarargs
+    final public <T, B extends RealmObject> Observable<Void> createOrUpdateAsync(
+            T entity, Class<B>... clearFirst) {
+        return RealmWriteBuffer.getDefault().enqueue(entity, clearFirst);
+    }
+
+    /**
+     * Forces the shared {@link RealmWriteBuffer} to commit every pending write.
+     *
+     * @return An Observable that completes when every pending write has been committed
+     */
+    final public Observable<Void> flush() {
+        return RealmWriteBuffer.getDefault().flush();
+    }
+
+    /**
+     * Stores the entity in the given {@link Realm} that must be in a transaction.
+     *
+     * @param realm      {@link Realm} instance in a transaction
+     * @param entity     {@link RealmObject} or {@link io.realm.RealmList}
+     * @param clearFirst Optional {@link RealmObject}s to be cleared
+     */
+    static void write(Realm realm, Object entity, Class<? extends RealmObject>[] clearFirst) {
+        if (clearFirst != null
+            && clearFirst.length > 0
+            && isAbleToClear(entity)) {
+            for (Class<? extends RealmObject> clazz : clearFirst) {
+                realm.clear(clazz);
+            }
+        }
+        if (entity instanceof RealmObject) {
+            realm.copyToRealmOrUpdate((RealmObject) entity);
+        } else if (hasCollectionItems(entity)) {
+            //noinspection unchecked
+            realm.copyToRealmOrUpdate((Collection) entity);
+        }
+    }
+
     /**
      * Checks whether is able to clear all entities on the {@link Realm} database.
      *
      * @param entity {@link RealmObject} or {@link io.realm.RealmList}
-     * @param <T>    {@link RealmObject} or {@link io.realm.RealmList}
      * @return true if is able to clear all entities on the {@link Realm} database, false otherwise
      */
-    private <T> boolean isAbleToClear(T entity) {
+    private static boolean isAbleToClear(Object entity) {
         return (entity instanceof RealmObject)
                || hasCollectionItems(entity);
     }
@@ -122,10 +281,9 @@ abstract class RealmDataSourceStrategy extends DataSourceStrategy {
      * Checks whether is a Collection and if it's not empty.
      *
      * @param entity {@link RealmObject} or {@link io.realm.RealmList}
-     * @param <T>    {@link RealmObject} or {@link io.realm.RealmList}
      * @return true if is a Collection and it is not empty, false otherwise
      */
-    private <T> boolean hasCollectionItems(T entity) {
+    private static boolean hasCollectionItems(Object entity) {
         return (entity instanceof Collection
                 && !((Collection) entity).isEmpty());
     }
@@ -134,8 +292,17 @@ abstract class RealmDataSourceStrategy extends DataSourceStrategy {
      * Returns the current {@link Realm} instance for the current Thread execution.
      *
      * @return The current {@link Realm} instance
+     * @throws IllegalStateException if no delegated {@link Observable} is running on the current
+     *                               Thread
      */
     final public Realm getRealm() {
+        Realm realm = ThreadConfinedRealm.current();
+        if (realm == null) {
+            throw new IllegalStateException(
+                    String.format("There is no Realm instance for the %s Thread. "
+                                  + "Have you delegated your Observable?",
+                                  Thread.currentThread().getName()));
+        }
         return realm;
     }
 }
@@ -0,0 +1,27 @@
+package com.kuassivi.october.repository.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import io.realm.RealmObject;
+
+/**
+ * Stores the JSON response of a Retrofit service method straight into {@link io.realm.Realm}.
+ * <p>
+ * The method must return the number of stored objects as an {@link Integer}.
+ *
+ * @see RealmJsonConverterFactory
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RealmJson {
+
+    /**
+     * The {@link RealmObject} class of the objects of the response, it must have a primary key.
+     */
+    Class<? extends RealmObject> value();
+}
@@ -0,0 +1,122 @@
+package com.kuassivi.october.repository.datasource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+
+import io.realm.Realm;
+import io.realm.RealmObject;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit converter that stores the JSON responses of the methods annotated with @{@link
+ * RealmJson} straight into {@link Realm}.
+ * <p>
+ * The response is downloaded to a temporary file first, so the write transaction never waits
+ * for the network and does not block the writes of other Threads meanwhile. Then the file is
+ * parsed with a pull parser and every object is stored as soon as it is read, in a single
+ * transaction, so neither the whole response nor its entities are ever held in memory. The
+ * {@link Realm} instance of the subscribing Thread is used if the request has been
+ * delegated on a {@link RealmCloudDataSource}.
+ * <p>
+ * <b>Usage:</b> Add it before any other converter factory:
+ * <pre>
+ * <code>protected Retrofit.Builder createRetrofitBuilder() {
+ *   return new Retrofit.Builder()
+ *       .addConverterFactory(RealmJsonConverterFactory.create())
+ *       .addConverterFactory(createConverterFactory())
+ *       .addCallAdapterFactory(RxJavaCallAdapterFactory.create());
+ * }
+ *
+ * &#64;GET("catalog")
+ * &#64;RealmJson(ProductEntity.class)
+ * Observable&lt;Integer&gt; getCatalog();
+ * </code>
+ * </pre>
+ */
+public final class RealmJsonConverterFactory extends Converter.Factory {
+
+    private RealmJsonConverterFactory() {}
+
+    public static RealmJsonConverterFactory create() {
+        return new RealmJsonConverterFactory();
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                            Retrofit retrofit) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof RealmJson) {
+                if (type != Integer.class) {
+                    throw new IllegalArgumentException(
+                            String.format("@%s methods must return the number of stored objects "
+                                          + "as an Integer, not %s.",
+                                          RealmJson.class.getSimpleName(), type));
+                }
+                return new RealmJsonConverter(((RealmJson) annotation).value());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores a JSON response into the {@link Realm} instance of the current Thread.
+     */
+    private static class RealmJsonConverter implements Converter<ResponseBody, Integer> {
+
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        private final Class<? extends RealmObject> clazz;
+
+        RealmJsonConverter(Class<? extends RealmObject> clazz) {
+            this.clazz = clazz;
+        }
+
+        @Override
+        public Integer convert(ResponseBody body) throws IOException {
+            File file = File.createTempFile("october", ".json");
+            try {
+                Charset charset = download(body, file);
+                Reader json = new InputStreamReader(Okio.buffer(Okio.source(file)).inputStream(),
+                                                    charset);
+                ThreadConfinedRealm handle = ThreadConfinedRealm.acquire();
+                try {
+                    return RealmDataSourceStrategy.createOrUpdateFromJson(
+                            ThreadConfinedRealm.current(), clazz, json, null);
+                } finally {
+                    handle.release();
+                    json.close();
+                }
+            } finally {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+
+        /**
+         * Writes the whole response body to the given file and closes it.
+         *
+         * @return The charset of the response body
+         */
+        private static Charset download(ResponseBody body, File file) throws IOException {
+            BufferedSink sink = Okio.buffer(Okio.sink(file));
+            try {
+                sink.writeAll(body.source());
+                MediaType contentType = body.contentType();
+                return contentType != null ? contentType.charset(UTF_8) : UTF_8;
+            } finally {
+                sink.close();
+                body.close();
+            }
+        }
+    }
+}
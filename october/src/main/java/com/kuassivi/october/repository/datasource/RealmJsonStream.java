@@ -0,0 +1,103 @@
+package com.kuassivi.october.repository.datasource;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import io.realm.Realm;
+import io.realm.RealmObject;
+
+/**
+ * Stores the objects of a JSON stream into {@link Realm} as they are read.
+ * <p>
+ * The stream is parsed with a pull parser, and only the object being read is held in memory, so
+ * the memory needed does not depend on the size of the stream.
+ */
+final class RealmJsonStream {
+
+    private RealmJsonStream() {
+        // no instances
+    }
+
+    /**
+     * Creates or updates every object of the JSON stream, that is either an array of objects or a
+     * single object.
+     *
+     * @param realm {@link Realm} instance in a transaction
+     * @param clazz The {@link RealmObject} class, it must have a primary key
+     * @param json  The JSON stream, it is not closed
+     * @param <E>   {@link RealmObject}
+     * @return The number of objects created or updated
+     * @throws IOException if the stream cannot be read or it is not a valid JSON
+     */
+    static <E extends RealmObject> int createOrUpdateAll(Realm realm, Class<E> clazz, Reader json)
+            throws IOException {
+        JsonReader reader = new JsonReader(json);
+        int count = 0;
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                realm.createOrUpdateObjectFromJson(clazz, readObject(reader));
+                count++;
+            }
+            reader.endArray();
+        } else {
+            realm.createOrUpdateObjectFromJson(clazz, readObject(reader));
+            count++;
+        }
+        return count;
+    }
+
+    private static JSONObject readObject(JsonReader reader) throws IOException {
+        JSONObject object = new JSONObject();
+        reader.beginObject();
+        try {
+            while (reader.hasNext()) {
+                object.put(reader.nextName(), readValue(reader));
+            }
+        } catch (JSONException e) {
+            throw new IOException(e.getMessage());
+        }
+        reader.endObject();
+        return object;
+    }
+
+    private static JSONArray readArray(JsonReader reader) throws IOException {
+        JSONArray array = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            array.put(readValue(reader));
+        }
+        reader.endArray();
+        return array;
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case BEGIN_ARRAY:
+                return readArray(reader);
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NUMBER:
+                String number = reader.nextString();
+                try {
+                    return Long.parseLong(number);
+                } catch (NumberFormatException ignored) {
+                    return Double.parseDouble(number);
+                }
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.kuassivi.october.repository.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.realm.Realm;
+import io.realm.RealmObject;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Action0;
+import rx.schedulers.Schedulers;
+import rx.subjects.AsyncSubject;
+
+/**
+ * Write-behind buffer that groups pending {@link Realm} writes into a single transaction.
+ * <p>
+ * Writes are queued in a bounded queue and drained on a dedicated writer {@link Thread}, either
+ * when the queue holds a full batch or when the flush delay is over, whichever happens first.
+ * <p>
+ * Every write returns an {@link Observable} that completes once its transaction has been
+ * committed, or fails if the transaction has been cancelled.
+ * <p>
+ * <b>Note:</b> When the queue is full, the caller is blocked until the writer makes room for the
+ * new write.
+ */
+public final class RealmWriteBuffer {
+
+    public static final int  DEFAULT_CAPACITY     = 4096;
+    public static final int  DEFAULT_BATCH_SIZE   = 512;
+    public static final long DEFAULT_DELAY_MILLIS = 100;
+
+    private static volatile RealmWriteBuffer defaultInstance;
+
+    /**
+     * Commits every batch in a single {@link Realm} transaction.
+     */
+    private static final BatchTransaction REALM_TRANSACTION = new BatchTransaction() {
+        @Override
+        public void execute(final List<PendingWrite> batch) {
+            Realm realm = Realm.getDefaultInstance();
+            try {
+                realm.executeTransaction(new Realm.Transaction() {
+                    @Override
+                    public void execute(Realm realmInstance) {
+                        for (PendingWrite write : batch) {
+                            RealmDataSourceStrategy.write(realmInstance, write.entity,
+                                                          write.clearFirst);
+                        }
+                    }
+                });
+            } finally {
+                realm.close();
+            }
+        }
+    };
+
+    private final BlockingQueue<PendingWrite> queue;
+    private final int                         batchSize;
+    private final long                        delayMillis;
+    private final Scheduler.Worker            writer;
+    private final BatchTransaction            transaction;
+    private final AtomicBoolean               drainScheduled = new AtomicBoolean();
+
+    /**
+     * Drains the pending writes on the writer Thread.
+     */
+    private final Action0 drain = new Action0() {
+        @Override
+        public void call() {
+            drain();
+        }
+    };
+
+    /**
+     * @param capacity    Max number of pending writes
+     * @param batchSize   Max number of writes committed in a single transaction
+     * @param delayMillis Max time a write waits in the queue before being committed
+     */
+    public RealmWriteBuffer(int capacity, int batchSize, long delayMillis) {
+        this(capacity, batchSize, delayMillis,
+             Schedulers.from(Executors.newSingleThreadExecutor(new ThreadFactory() {
+                 @Override
+                 public Thread newThread(Runnable runnable) {
+                     Thread thread = new Thread(runnable, "october-realm-writer");
+                     thread.setDaemon(true);
+                     return thread;
+                 }
+             })),
+             REALM_TRANSACTION);
+    }
+
+    /**
+     * @param capacity    Max number of pending writes
+     * @param batchSize   Max number of writes committed in a single transaction
+     * @param delayMillis Max time a write waits in the queue before being committed
+     * @param scheduler   Single threaded Scheduler of the writer
+     * @param transaction Commits every batch
+     */
+    RealmWriteBuffer(int capacity, int batchSize, long delayMillis, Scheduler scheduler,
+                     BatchTransaction transaction) {
+        if (capacity <= 0 || batchSize <= 0 || delayMillis < 0) {
+            throw new IllegalArgumentException(
+                    "capacity and batchSize must be > 0, and delayMillis must be >= 0");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.delayMillis = delayMillis;
+        this.writer = scheduler.createWorker();
+        this.transaction = transaction;
+    }
+
+    /**
+     * Returns the buffer shared by every {@link RealmDataSourceStrategy}.
+     */
+    public static RealmWriteBuffer getDefault() {
+        if (defaultInstance == null) {
+            synchronized (RealmWriteBuffer.class) {
+                if (defaultInstance == null) {
+                    defaultInstance = new RealmWriteBuffer(DEFAULT_CAPACITY,
+                                                           DEFAULT_BATCH_SIZE,
+                                                           DEFAULT_DELAY_MILLIS);
+                }
+            }
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Queues an entity to be created or updated.
+     *
+     * @param entity     {@link RealmObject} or {@link io.realm.RealmList}
+     * @param clearFirst Optional {@link RealmObject}s to be cleared
+     * @return An Observable that completes when the entity has been committed
+     */
+    public Observable<Void> enqueue(Object entity, Class<? extends RealmObject>[] clearFirst) {
+        if (entity == null) {
+            return Observable.empty();
+        }
+        PendingWrite write = new PendingWrite(entity, clearFirst);
+        if (!queue.offer(write)) {
+            writer.schedule(drain);
+            try {
+                queue.put(write);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Observable.error(e);
+            }
+        }
+        if (queue.size() >= batchSize) {
+            writer.schedule(drain);
+        } else if (drainScheduled.compareAndSet(false, true)) {
+            writer.schedule(drain, delayMillis, TimeUnit.MILLISECONDS);
+        }
+        return write.completion.asObservable();
+    }
+
+    /**
+     * Forces the writer to commit every pending write.
+     *
+     * @return An Observable that completes when every write queued before this call has been
+     * committed
+     */
+    public Observable<Void> flush() {
+        final AsyncSubject<Void> flushed = AsyncSubject.create();
+        writer.schedule(new Action0() {
+            @Override
+            public void call() {
+                drain();
+                flushed.onCompleted();
+            }
+        });
+        return flushed.asObservable();
+    }
+
+    /**
+     * Returns the number of writes waiting in the queue.
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Commits the pending writes in batches, it must be called on the writer Thread.
+     */
+    private void drain() {
+        drainScheduled.set(false);
+        List<PendingWrite> batch = new ArrayList<>(Math.min(batchSize, queue.size() + 1));
+        while (queue.drainTo(batch, batchSize) > 0) {
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Commits a batch of writes in a single transaction.
+     */
+    private void commit(List<PendingWrite> batch) {
+        try {
+            transaction.execute(batch);
+        } catch (Throwable e) {
+            for (PendingWrite write : batch) {
+                write.completion.onError(e);
+            }
+            return;
+        }
+        for (PendingWrite write : batch) {
+            write.completion.onCompleted();
+        }
+    }
+
+    /**
+     * Commits a batch of writes, all or none of them.
+     */
+    interface BatchTransaction {
+
+        void execute(List<PendingWrite> batch);
+    }
+
+    /**
+     * A write waiting to be committed.
+     */
+    static class PendingWrite {
+
+        final Object                         entity;
+        final Class<? extends RealmObject>[] clearFirst;
+        final AsyncSubject<Void>             completion = AsyncSubject.create();
+
+        PendingWrite(Object entity, Class<? extends RealmObject>[] clearFirst) {
+            this.entity = entity;
+            this.clearFirst = clearFirst;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.kuassivi.october.repository.datasource;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.realm.Realm;
+
+/**
+ * Reference counted {@link Realm} handle confined to a single {@link Thread}.
+ * <p>
+ * Every subscription running on the same Thread shares the same {@link Realm} instance, which is
+ * opened by the first one and closed when the Thread goes idle:
+ * <ul>
+ * <li>On a {@link Looper} Thread, once its message queue is idle and no subscription holds the
+ * handle.</li>
+ * <li>On any other Thread, as soon as the last subscription releases the handle, so an idle
+ * worker never pins an old version of the database.</li>
+ * </ul>
+ * A {@link Realm} instance can only be closed on its owner Thread. When the last release happens
+ * on another Thread, i.e. an unsubscription from the main Thread, the close is posted to the
+ * owner Thread if it has a {@link Looper}. A Thread without a {@link Looper} cannot be called
+ * back, so its handle must be released on it before it returns to its pool, as {@link
+ * RealmDataSourceStrategy} does once the subscription returns. Otherwise the close is only done
+ * the next time the owner Thread acquires the handle.
+ */
+final class ThreadConfinedRealm {
+
+    private static final ThreadLocal<ThreadConfinedRealm> HANDLES = new ThreadLocal<>();
+
+    private static final RealmOpener DEFAULT_OPENER = new RealmOpener() {
+        @Override
+        public Realm open() {
+            return Realm.getDefaultInstance();
+        }
+
+        @Override
+        public boolean isClosed(Realm realm) {
+            return realm.isClosed();
+        }
+
+        @Override
+        public void refresh(Realm realm) {
+            realm.refresh();
+        }
+
+        @Override
+        public void close(Realm realm) {
+            realm.close();
+        }
+    };
+
+    private static volatile RealmOpener opener = DEFAULT_OPENER;
+
+    private final Thread        owner      = Thread.currentThread();
+    private final Looper        looper     = Looper.myLooper();
+    private final AtomicInteger references = new AtomicInteger();
+
+    private Realm   realm;
+    private boolean isOpen;
+    private boolean isCloseScheduled;
+
+    /**
+     * Whether the last release happened on a Thread other than the owner one, that has no {@link
+     * Looper} to post the close to.
+     */
+    private volatile boolean isReleasedElsewhere;
+
+    /**
+     * Closes the {@link Realm} instance when the message queue of the owner Thread is idle.
+     */
+    private final MessageQueue.IdleHandler closeWhenIdle = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            isCloseScheduled = false;
+            closeIfUnused();
+            return false;
+        }
+    };
+
+    /**
+     * Schedules the close on the owner Thread after being released from another Thread.
+     */
+    private final Runnable closeOnOwner = new Runnable() {
+        @Override
+        public void run() {
+            if (references.get() <= 0) {
+                scheduleClose();
+            }
+        }
+    };
+
+    private ThreadConfinedRealm() {}
+
+    /**
+     * Retains the handle of the current Thread, opening its {@link Realm} instance if needed.
+     *
+     * @return The handle of the current Thread
+     */
+    static ThreadConfinedRealm acquire() {
+        ThreadConfinedRealm handle = HANDLES.get();
+        if (handle == null) {
+            handle = new ThreadConfinedRealm();
+            HANDLES.set(handle);
+        }
+        handle.retain();
+        return handle;
+    }
+
+    /**
+     * Replaces how the {@link Realm} instances are opened and closed, only meant for tests.
+     *
+     * @param realmOpener The opener, or null to restore the default one
+     */
+    static void setOpener(RealmOpener realmOpener) {
+        opener = realmOpener != null
+                 ? realmOpener
+                 : DEFAULT_OPENER;
+    }
+
+    /**
+     * Returns the {@link Realm} instance of the current Thread, or null if no subscription holds
+     * it.
+     */
+    static Realm current() {
+        ThreadConfinedRealm handle = HANDLES.get();
+        return handle != null && handle.references.get() > 0
+               ? handle.realm
+               : null;
+    }
+
+    /**
+     * Returns whether the owner Thread has a {@link Looper}, so a release from another Thread can
+     * be posted to it.
+     */
+    boolean hasLooper() {
+        return looper != null;
+    }
+
+    /**
+     * Releases the handle, it can be called from any Thread.
+     */
+    void release() {
+        if (references.decrementAndGet() > 0) {
+            return;
+        }
+        if (Thread.currentThread() == owner) {
+            scheduleClose();
+        } else if (looper != null) {
+            new Handler(looper).post(closeOnOwner);
+        } else {
+            isReleasedElsewhere = true;
+        }
+    }
+
+    /**
+     * Closes the {@link Realm} instance, or schedules it if the owner Thread has a {@link Looper}.
+     * It must be called on the owner Thread.
+     */
+    private void scheduleClose() {
+        if (looper == null) {
+            closeIfUnused();
+        } else if (!isCloseScheduled) {
+            isCloseScheduled = true;
+            Looper.myQueue().addIdleHandler(closeWhenIdle);
+        }
+    }
+
+    private void retain() {
+        if (isReleasedElsewhere) {
+            isReleasedElsewhere = false;
+            closeIfUnused();
+        }
+        if (!isOpen || opener.isClosed(realm)) {
+            realm = opener.open();
+            isOpen = true;
+            opener.refresh(realm); // Fix
+        } else if (references.get() <= 0) {
+            // Reused after being idle, catch up with other Threads' commits
+            opener.refresh(realm);
+        }
+        references.incrementAndGet();
+    }
+
+    private void closeIfUnused() {
+        if (references.get() <= 0 && isOpen) {
+            if (!opener.isClosed(realm)) {
+                opener.close(realm);
+            }
+            realm = null;
+            isOpen = false;
+        }
+    }
+
+    /**
+     * Opens and closes the {@link Realm} instances of the handles.
+     */
+    interface RealmOpener {
+
+        Realm open();
+
+        boolean isClosed(Realm realm);
+
+        void refresh(Realm realm);
+
+        void close(Realm realm);
+    }
+}
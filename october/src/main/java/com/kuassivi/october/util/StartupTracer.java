@@ -0,0 +1,257 @@
+package com.kuassivi.october.util;
+
+import android.os.Debug;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Opt-in tracer of the October startup and injection phases.
+ * <p>
+ * It records the wall and the CPU time of the current Thread spent on every phase, delivers
+ * every record to the registered listeners and keeps them to be dumped as a report. It is
+ * disabled by default, and then tracing a phase costs a single volatile read.
+ * <p>
+ * <b>Usage:</b> Enable it before initializing October:
+ * <pre>
+ * <code>public void onCreate() {
+ *   super.onCreate();
+ *   StartupTracer.setEnabled(BuildConfig.DEBUG);
+ *   October.initialize(this);
+ * }
+ * </code>
+ * </pre>
+ * And dump the report once the first screen is shown:
+ * <pre>
+ * <code>Log.d("Startup", StartupTracer.dump());
+ * </code>
+ * </pre>
+ */
+public final class StartupTracer {
+
+    /**
+     * Max number of records kept for the report, the listeners receive every record anyway.
+     */
+    public static final int MAX_RECORDS = 1024;
+
+    /**
+     * Traced phases.
+     */
+    public enum Phase {
+        /**
+         * Lookup and instantiation of the generated component initializer.
+         */
+        CLASS_LOOKUP,
+        /**
+         * Construction of the application component graph.
+         */
+        COMPONENT_BUILD,
+        /**
+         * Construction of the Activity or Fragment component.
+         */
+        APPLY_MODULE,
+        /**
+         * Injection of an Activity or a Fragment and its Presenter injector.
+         */
+        INJECT,
+        /**
+         * Resolution of a Presenter through its Lazy provider.
+         */
+        PRESENTER_GET
+    }
+
+    /**
+     * Receives every traced phase.
+     */
+    public interface Listener {
+
+        /**
+         * Called on the Thread that has run the phase, just after it has finished.
+         *
+         * @param record The traced phase
+         */
+        void onPhaseTraced(Record record);
+    }
+
+    private static final List<Record>                  RECORDS   = new ArrayList<>();
+    private static final CopyOnWriteArrayList<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static volatile boolean enabled;
+
+    private StartupTracer() {
+        // no instances
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        StartupTracer.enabled = enabled;
+    }
+
+    public static void addListener(Listener listener) {
+        LISTENERS.addIfAbsent(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Starts tracing a phase.
+     *
+     * @param phase  The phase
+     * @param target The class that runs the phase
+     * @return The started span, or null if the tracer is disabled
+     */
+    @Nullable
+    public static Span begin(Phase phase, Class<?> target) {
+        return enabled
+               ? new Span(phase, target)
+               : null;
+    }
+
+    /**
+     * Finishes tracing a phase.
+     *
+     * @param span The span returned by {@link #begin(Phase, Class)}, it may be null
+     */
+    public static void end(@Nullable Span span) {
+        if (span == null) {
+            return;
+        }
+        long cpuNanos = Debug.threadCpuTimeNanos();
+        Record record = new Record(span.phase,
+                                   span.target.getName(),
+                                   Thread.currentThread().getName(),
+                                   System.nanoTime() - span.startWallNanos,
+                                   span.startCpuNanos >= 0 && cpuNanos >= 0
+                                   ? cpuNanos - span.startCpuNanos
+                                   : -1);
+        synchronized (RECORDS) {
+            if (RECORDS.size() < MAX_RECORDS) {
+                RECORDS.add(record);
+            }
+        }
+        for (Listener listener : LISTENERS) {
+            listener.onPhaseTraced(record);
+        }
+    }
+
+    /**
+     * Returns a copy of the kept records, in the order they have finished.
+     */
+    public static List<Record> getRecords() {
+        synchronized (RECORDS) {
+            return new ArrayList<>(RECORDS);
+        }
+    }
+
+    /**
+     * Discards the kept records.
+     */
+    public static void reset() {
+        synchronized (RECORDS) {
+            RECORDS.clear();
+        }
+    }
+
+    /**
+     * Builds a report with every kept record and the total time of every phase.
+     *
+     * @return The report
+     */
+    public static String dump() {
+        List<Record> records = getRecords();
+        long[] totalWall = new long[Phase.values().length];
+        long[] totalCpu = new long[Phase.values().length];
+        StringBuilder report = new StringBuilder("October startup trace\n");
+        for (Record record : records) {
+            report.append(record).append('\n');
+            totalWall[record.phase.ordinal()] += record.wallNanos;
+            totalCpu[record.phase.ordinal()] += Math.max(0, record.cpuNanos);
+        }
+        report.append("Totals\n");
+        for (Phase phase : Phase.values()) {
+            report.append(String.format(Locale.US, "  %-16s wall %8.3f ms  cpu %8.3f ms\n",
+                                        phase,
+                                        totalWall[phase.ordinal()] / 1e6,
+                                        totalCpu[phase.ordinal()] / 1e6));
+        }
+        return report.toString();
+    }
+
+    /**
+     * A phase that is being traced.
+     */
+    public static final class Span {
+
+        private final Phase    phase;
+        private final Class<?> target;
+        private final long     startWallNanos;
+        private final long     startCpuNanos;
+
+        private Span(Phase phase, Class<?> target) {
+            this.phase = phase;
+            this.target = target;
+            this.startCpuNanos = Debug.threadCpuTimeNanos();
+            this.startWallNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * A traced phase.
+     */
+    public static final class Record {
+
+        private final Phase  phase;
+        private final String target;
+        private final String thread;
+        private final long   wallNanos;
+        private final long   cpuNanos;
+
+        Record(Phase phase, String target, String thread, long wallNanos, long cpuNanos) {
+            this.phase = phase;
+            this.target = target;
+            this.thread = thread;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * Returns the name of the class that has run the phase.
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * Returns the CPU time of the Thread, or -1 if it is not supported.
+         */
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "  %-16s wall %8.3f ms  cpu %8.3f ms  [%s] %s",
+                                 phase, wallNanos / 1e6, cpuNanos / 1e6, thread, target);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.kuassivi.october.repository.datasource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import io.realm.Realm;
+import rx.Observable;
+import rx.Subscription;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RealmDataSourceStrategyTest {
+
+    private RecordingOpener         opener;
+    private RealmDataSourceStrategy strategy;
+
+    @Before
+    public void setUp() {
+        opener = new RecordingOpener();
+        ThreadConfinedRealm.setOpener(opener);
+        strategy = new RealmDataSourceStrategy() {
+        };
+    }
+
+    @After
+    public void tearDown() {
+        ThreadConfinedRealm.setOpener(null);
+    }
+
+    @Test
+    public void closesTheRealmOfAWorkerUnsubscribedFromAnotherThread() throws Exception {
+        PublishSubject<String> response = PublishSubject.create();
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+
+        Subscription subscription = strategy.compose(response)
+                                            .subscribeOn(Schedulers.newThread())
+                                            .subscribe(subscriber);
+        opener.awaitClose();
+        subscription.unsubscribe();
+
+        assertEquals(1, opener.opened.size());
+        // closed once, on the worker that opened it
+        assertEquals(opener.opened, opener.closed);
+        assertTrue(opener.opened.get(0) != Thread.currentThread());
+    }
+
+    @Test
+    public void holdsTheRealmWhileTheWorkerSubscribes() throws Exception {
+        TestSubscriber<Boolean> subscriber = new TestSubscriber<>();
+
+        strategy.compose(Observable.defer(
+                () -> Observable.just(opener.closed.isEmpty() && opener.opened.size() == 1)))
+                .subscribeOn(Schedulers.newThread())
+                .subscribe(subscriber);
+        subscriber.awaitTerminalEvent(5, TimeUnit.SECONDS);
+
+        subscriber.assertValue(true);
+        opener.awaitClose();
+        assertEquals(opener.opened, opener.closed);
+    }
+
+    /**
+     * Records the Threads the Realm instances are opened and closed on.
+     */
+    private static class RecordingOpener implements ThreadConfinedRealm.RealmOpener {
+
+        final List<Thread> opened = new CopyOnWriteArrayList<>();
+        final List<Thread> closed = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Realm open() {
+            opened.add(Thread.currentThread());
+            return null;
+        }
+
+        @Override
+        public boolean isClosed(Realm realm) {
+            return false;
+        }
+
+        @Override
+        public void refresh(Realm realm) {}
+
+        @Override
+        public synchronized void close(Realm realm) {
+            closed.add(Thread.currentThread());
+            notifyAll();
+        }
+
+        synchronized void awaitClose() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (closed.isEmpty() && System.currentTimeMillis() < deadline) {
+                wait(deadline - System.currentTimeMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.kuassivi.october.repository.datasource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+
+public class RealmWriteBufferTest {
+
+    private static final long DELAY_MILLIS = 100;
+
+    private TestScheduler      scheduler;
+    private List<List<Object>> batches;
+    private RuntimeException   failure;
+    private RealmWriteBuffer   buffer;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        batches = new ArrayList<>();
+        buffer = new RealmWriteBuffer(16, 3, DELAY_MILLIS, scheduler, new RecordingTransaction());
+    }
+
+    @Test
+    public void commitsTheWritesOnceTheDelayIsOver() {
+        TestSubscriber<Void> first = enqueue("a");
+        TestSubscriber<Void> second = enqueue("b");
+
+        scheduler.advanceTimeBy(DELAY_MILLIS - 1, TimeUnit.MILLISECONDS);
+        assertEquals(0, batches.size());
+        first.assertNotCompleted();
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(Collections.singletonList(Arrays.<Object>asList("a", "b")), batches);
+        first.assertCompleted();
+        second.assertCompleted();
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    public void commitsAFullBatchWithoutWaitingTheDelay() {
+        enqueue("a");
+        enqueue("b");
+        enqueue("c");
+        enqueue("d");
+
+        scheduler.triggerActions();
+
+        assertEquals(Arrays.asList(Arrays.<Object>asList("a", "b", "c"),
+                                   Collections.<Object>singletonList("d")),
+                     batches);
+    }
+
+    @Test
+    public void failsEveryWriteOfACancelledBatch() {
+        failure = new IllegalStateException("cancelled");
+        TestSubscriber<Void> first = enqueue("a");
+        TestSubscriber<Void> second = enqueue("b");
+
+        scheduler.advanceTimeBy(DELAY_MILLIS, TimeUnit.MILLISECONDS);
+
+        first.assertError(failure);
+        second.assertError(failure);
+    }
+
+    @Test
+    public void flushCommitsThePendingWrites() {
+        TestSubscriber<Void> write = enqueue("a");
+        TestSubscriber<Void> flushed = new TestSubscriber<>();
+        buffer.flush().subscribe(flushed);
+
+        scheduler.triggerActions();
+
+        write.assertCompleted();
+        flushed.assertCompleted();
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void ignoresNullEntities() {
+        TestSubscriber<Void> subscriber = new TestSubscriber<>();
+        buffer.enqueue(null, null).subscribe(subscriber);
+
+        subscriber.assertCompleted();
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    private class RecordingTransaction implements RealmWriteBuffer.BatchTransaction {
+
+        @Override
+        public void execute(List<RealmWriteBuffer.PendingWrite> batch) {
+            if (failure != null) {
+                throw failure;
+            }
+            List<Object> entities = new ArrayList<>();
+            for (RealmWriteBuffer.PendingWrite write : batch) {
+                entities.add(write.entity);
+            }
+            batches.add(entities);
+        }
+    }
+
+    private TestSubscriber<Void> enqueue(Object entity) {
+        TestSubscriber<Void> subscriber = new TestSubscriber<>();
+        buffer.enqueue(entity, null).subscribe(subscriber);
+        return subscriber;
+    }
+}